@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks of the request hot path with the GC profiler, so allocation rates (gc.alloc.rate.norm, bytes
+ * per operation) are reported together with the timings. Benchmarks can be filtered by a regular expression passed as
+ * the only argument.
+ *
+ * @author Maksim Filkov
+ */
+public final class BenchmarkRunner {
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main(final String[] args) throws RunnerException {
+      final Options options = new OptionsBuilder()
+         .include(args.length > 0 ? args[0] : "org\\.lexikos\\.translator\\..*Benchmark")
+         .addProfiler(GCProfiler.class)
+         .build();
+      new Runner(options).run();
+   }
+
+}
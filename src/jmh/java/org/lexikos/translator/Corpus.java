@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.Entry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Phrase corpora used by benchmarks. Every corpus contains typical English, Russian or German dictionary phrases:
+ * single words, idioms, and phrases with punctuation and Solr special characters. The "mixed" corpus contains Russian
+ * phrases with English loanwords, which are written in both Latin and Cyrillic letters.
+ *
+ * @author Maksim Filkov
+ */
+public final class Corpus {
+
+   private Corpus() {
+   }
+
+   /**
+    * Returns phrases of the language.
+    *
+    * @param language Two letter language code (en, ru or de) or "mixed".
+    * @return Phrases of the language.
+    */
+   public static List<String> phrases(final String language) {
+      final List<String> phrases = new ArrayList<>();
+      try (final InputStream input = Corpus.class.getResourceAsStream("/corpus/" + language + ".txt");
+           final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+               phrases.add(line);
+            }
+         }
+      } catch (final IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      return phrases;
+   }
+
+   /**
+    * Returns phrases of both languages of the language pair.
+    *
+    * @param languagePair Language pair.
+    * @return Phrases of the source language followed by phrases of the target language.
+    */
+   public static List<String> phrases(final LanguagePair languagePair) {
+      final List<String> phrases = new ArrayList<>(phrases(languagePair.getSourceLanguage()));
+      phrases.addAll(phrases(languagePair.getTargetLanguage()));
+      return phrases;
+   }
+
+   /**
+    * Returns entries translating phrases of the source language to phrases of the target language line by line.
+    *
+    * @param languagePair Language pair.
+    * @param size         Number of entries, the corpora are repeated if needed.
+    * @return Dictionary entries.
+    */
+   public static List<Entry> entries(final LanguagePair languagePair, final int size) {
+      final List<String> sources = phrases(languagePair.getSourceLanguage());
+      final List<String> targets = phrases(languagePair.getTargetLanguage());
+      final List<Entry> entries = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+         entries.add(new Entry()
+            .setId(languagePair.getAbbreviation() + "-" + i)
+            .setSourcePhrase(sources.get(i % sources.size()))
+            .setTargetPhrase(targets.get(i % targets.size()))
+            .setPartOfSpeech("noun")
+            .setDictionary("General")
+            .setAuthor("lexikos")
+            .setCommentary("Benchmark entry " + i)
+            .setDate(new Date(0)));
+      }
+      return entries;
+   }
+
+}
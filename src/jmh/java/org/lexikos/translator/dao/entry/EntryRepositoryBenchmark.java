@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.Corpus;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.constant.SolrEntryFieldNames;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.solr.core.DefaultQueryParser;
+import org.springframework.data.solr.core.query.Query;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of Solr query building done by {@link EntryRepositoryImpl} for every search request: escaping of the
+ * searched phrase, construction of the grouped query and its rendering to Solr parameters.
+ *
+ * @author Maksim Filkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntryRepositoryBenchmark {
+
+   @Param({ "enru", "deru" })
+   private String languagePair;
+
+   private final EntryRepositoryImpl repository = new EntryRepositoryImpl();
+
+   private final DefaultQueryParser queryParser = new DefaultQueryParser();
+
+   private final Pageable page = new PageRequest(0, 30);
+
+   private List<String> phrases;
+
+   private String[] expressions;
+
+   private int next;
+
+   @Setup
+   public void setUp() {
+      phrases = Corpus.phrases(LanguagePair.of(languagePair));
+      expressions = new String[phrases.size()];
+      for (int i = 0; i < expressions.length; i++) {
+         expressions[i] = "\"" + repository.escapePhraseForSolr(phrases.get(i)) + "\"~5";
+      }
+   }
+
+   @Benchmark
+   public String escapePhrase() {
+      return repository.escapePhraseForSolr(phrases.get(nextIndex()));
+   }
+
+   @Benchmark
+   public Query createQuery() {
+      return repository.createBidirectionalQuery(SolrEntryFieldNames.SOURCE_PHRASE_FIELD_NAME,
+         SolrEntryFieldNames.TARGET_PHRASE_FIELD_NAME, expressions[nextIndex()], page);
+   }
+
+   @Benchmark
+   public Object createAndParseQuery() {
+      final Query query = repository.createBidirectionalQuery(SolrEntryFieldNames.SOURCE_PHRASE_FIELD_NAME,
+         SolrEntryFieldNames.TARGET_PHRASE_FIELD_NAME, expressions[nextIndex()], page);
+      return queryParser.constructSolrQuery(query);
+   }
+
+   private int nextIndex() {
+      next = next + 1 < phrases.size() ? next + 1 : 0;
+      return next;
+   }
+
+}
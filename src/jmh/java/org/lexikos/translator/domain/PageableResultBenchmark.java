@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.lexikos.translator.Corpus;
+import org.lexikos.translator.constant.LanguagePair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of Jackson serialization of a {@link PageableResult} returned by the fuzzy search.
+ *
+ * @author Maksim Filkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageableResultBenchmark {
+
+   @Param({ "enru", "deru" })
+   private String languagePair;
+
+   @Param({ "10", "30" })
+   private int entriesOnPage;
+
+   private final ObjectWriter writer = new ObjectMapper().writerFor(PageableResult.class);
+
+   private PageableResult result;
+
+   @Setup
+   public void setUp() {
+      result = new PageableResult(new PageImpl<>(Corpus.entries(LanguagePair.of(languagePair), entriesOnPage),
+         new PageRequest(0, entriesOnPage), 1000));
+   }
+
+   @Benchmark
+   public byte[] serialize() throws JsonProcessingException {
+      return writer.writeValueAsBytes(result);
+   }
+
+}
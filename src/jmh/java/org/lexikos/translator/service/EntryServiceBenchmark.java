@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.service;
+
+import org.lexikos.translator.Corpus;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.constant.TranslationDirection;
+import org.lexikos.translator.domain.Entry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the entry post-processing done by {@link EntryServiceImpl} for every search request. Swapping phrases
+ * in place twice restores the entries, so every invocation does the same work.
+ *
+ * @author Maksim Filkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntryServiceBenchmark {
+
+   @Param({ "10", "30" })
+   private int entriesOnPage;
+
+   private final EntryServiceImpl service = new EntryServiceImpl();
+
+   private List<Entry> entries;
+
+   @Setup
+   public void setUp() {
+      entries = Corpus.entries(LanguagePair.of("enru"), entriesOnPage);
+   }
+
+   @Benchmark
+   public List<Entry> swapPhrasesDirect() {
+      return service.swapPhrases(entries, TranslationDirection.DIRECT);
+   }
+
+   @Benchmark
+   public List<Entry> swapPhrasesReverse() {
+      return service.swapPhrases(entries, TranslationDirection.REVERSE);
+   }
+
+}
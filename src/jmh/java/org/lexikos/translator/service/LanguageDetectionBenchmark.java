@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.lexikos.translator.Corpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link LanguageDetectionService#detect(String)}. English and Russian phrases are written in a script
+ * used by one supported language only and are resolved by script. Phrases mixing Latin and Cyrillic letters go to the
+ * n-gram detector, so the cache size parameter matters for them only: set to zero it measures the detector without
+ * memoization.
+ *
+ * @author Maksim Filkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LanguageDetectionBenchmark {
+
+   @Param({ "en", "ru", "mixed" })
+   private String language;
+
+   @Param({ "0", "10000" })
+   private long cacheMaxSize;
+
+   private final LanguageDetectionService service = new LanguageDetectionService();
+
+   private List<String> phrases;
+
+   private int next;
+
+   @Setup
+   public void setUp() throws ReflectiveOperationException {
+      final Field field = LanguageDetectionService.class.getDeclaredField("cacheMaxSize");
+      field.setAccessible(true);
+      field.setLong(service, cacheMaxSize);
+      final Field registryField = LanguageDetectionService.class.getDeclaredField("meterRegistry");
+      registryField.setAccessible(true);
+      registryField.set(service, new SimpleMeterRegistry());
+      service.init();
+      phrases = Corpus.phrases(language);
+   }
+
+   @Benchmark
+   public String detect() {
+      next = next + 1 < phrases.size() ? next + 1 : 0;
+      return service.detect(phrases.get(next));
+   }
+
+}
@@ -22,6 +22,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.solr.SolrAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * This class contains main entry point to the service.
@@ -31,6 +32,7 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @SpringBootApplication(exclude = { SolrAutoConfiguration.class })
 @EnableAutoConfiguration
+@EnableScheduling
 @ComponentScan(basePackages = { "org.lexikos.translator" })
 public class TranslatorApplication {
 
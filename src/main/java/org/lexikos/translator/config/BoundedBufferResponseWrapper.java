@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.config;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Response holding back its body up to the given number of bytes, so headers can still be set after the body is
+ * written. A larger body is not buffered: once the limit is exceeded, the action run before commit is run, the
+ * buffered part is written out and the rest of the body is streamed to the client as it is written.
+ *
+ * @author Maksim Filkov
+ */
+final class BoundedBufferResponseWrapper extends HttpServletResponseWrapper {
+
+   private final int maxBufferedBytes;
+
+   private final Runnable beforeCommit;
+
+   private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+   private boolean streaming;
+
+   private ServletOutputStream outputStream;
+
+   private PrintWriter writer;
+
+   /**
+    * @param response         Wrapped response.
+    * @param maxBufferedBytes Maximum number of bytes held back.
+    * @param beforeCommit     Action run once, right before the first byte is sent to the client.
+    */
+   BoundedBufferResponseWrapper(final HttpServletResponse response, final int maxBufferedBytes,
+                                final Runnable beforeCommit) {
+      super(response);
+      this.maxBufferedBytes = maxBufferedBytes;
+      this.beforeCommit = beforeCommit;
+   }
+
+   /**
+    * Returns whether the body exceeded the limit and is streamed.
+    *
+    * @return True if the body is streamed.
+    */
+   boolean isStreaming() {
+      return streaming;
+   }
+
+   /**
+    * Sends the buffered body to the client, running the action before commit first if the body is not streamed.
+    *
+    * @throws IOException If the body cannot be sent.
+    */
+   void copyBodyToResponse() throws IOException {
+      if (writer != null) {
+         writer.flush();
+      }
+      if (streaming) {
+         return;
+      }
+      streaming = true;
+      beforeCommit.run();
+      if (buffer.size() > 0) {
+         if (!super.isCommitted()) {
+            super.setContentLength(buffer.size());
+         }
+         buffer.writeTo(super.getOutputStream());
+      }
+      buffer = null;
+   }
+
+   @Override
+   public ServletOutputStream getOutputStream() throws IOException {
+      if (writer != null) {
+         throw new IllegalStateException("getWriter() has already been called on this response");
+      }
+      return getBufferedOutputStream();
+   }
+
+   @Override
+   public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+         if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called on this response");
+         }
+         writer = new PrintWriter(new OutputStreamWriter(getBufferedOutputStream(), getCharacterEncoding()));
+      }
+      return writer;
+   }
+
+   /**
+    * A buffered body is not flushed, otherwise the response would be committed before the headers are complete.
+    */
+   @Override
+   public void flushBuffer() throws IOException {
+      if (writer != null) {
+         writer.flush();
+      }
+      if (streaming) {
+         super.flushBuffer();
+      }
+   }
+
+   @Override
+   public void resetBuffer() {
+      if (!streaming) {
+         buffer.reset();
+      }
+      super.resetBuffer();
+   }
+
+   @Override
+   public void reset() {
+      if (!streaming) {
+         buffer.reset();
+      }
+      super.reset();
+   }
+
+   private ServletOutputStream getBufferedOutputStream() throws IOException {
+      if (outputStream == null) {
+         outputStream = new BufferedOutputStream(super.getOutputStream());
+      }
+      return outputStream;
+   }
+
+   private void startStreaming() throws IOException {
+      streaming = true;
+      beforeCommit.run();
+      buffer.writeTo(super.getOutputStream());
+      buffer = null;
+   }
+
+   private final class BufferedOutputStream extends ServletOutputStream {
+
+      private final ServletOutputStream target;
+
+      private BufferedOutputStream(final ServletOutputStream target) {
+         this.target = target;
+      }
+
+      @Override
+      public void write(final int b) throws IOException {
+         if (streaming) {
+            target.write(b);
+            return;
+         }
+         buffer.write(b);
+         if (buffer.size() > maxBufferedBytes) {
+            startStreaming();
+         }
+      }
+
+      @Override
+      public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+         if (streaming) {
+            target.write(bytes, offset, length);
+            return;
+         }
+         buffer.write(bytes, offset, length);
+         if (buffer.size() > maxBufferedBytes) {
+            startStreaming();
+         }
+      }
+
+      @Override
+      public void flush() throws IOException {
+         if (streaming) {
+            target.flush();
+         }
+      }
+
+      @Override
+      public boolean isReady() {
+         return !streaming || target.isReady();
+      }
+
+      @Override
+      public void setWriteListener(final WriteListener writeListener) {
+         target.setWriteListener(writeListener);
+      }
+
+   }
+
+}
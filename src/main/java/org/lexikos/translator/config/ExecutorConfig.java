@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for executors running background and parallel tasks.
+ *
+ * @author Maksim Filkov
+ */
+@Configuration
+public class ExecutorConfig {
+
+   @Value("${search.import.threads}")
+   private int importThreads;
+
+   @Value("${morpho.threads}")
+   private int morphologyThreads;
+
+   @Value("${search.fanout.threads}")
+   private int searchThreads;
+
+   @Value("${search.fanout.queue_capacity}")
+   private int searchQueueCapacity;
+
+   @Value("${search.export.threads}")
+   private int exportThreads;
+
+   @Value("${search.async.threads}")
+   private int solrThreads;
+
+   @Value("${search.async.queue_capacity}")
+   private int solrQueueCapacity;
+
+   @Value("${server.image.threads}")
+   private int imageThreads;
+
+   /**
+    * Executor resolving parts of speech for imported entries in parallel.
+    *
+    * @return Executor for dictionary import.
+    */
+   @Bean
+   public ThreadPoolTaskExecutor importExecutor() {
+      return executor("entry-import-", importThreads);
+   }
+
+   /**
+    * Executor sending requests to morphology service, so parts of speech of both phrases are found concurrently.
+    *
+    * @return Executor for morphology requests.
+    */
+   @Bean
+   public ThreadPoolTaskExecutor morphologyExecutor() {
+      return executor("morphology-", morphologyThreads);
+   }
+
+   /**
+    * Executor searching several language pairs concurrently within one request. Its queue is bounded, searches
+    * rejected by the full executor fail at once instead of waiting past the deadline.
+    *
+    * @return Executor for searches.
+    */
+   @Bean
+   public ThreadPoolTaskExecutor searchExecutor() {
+      final ThreadPoolTaskExecutor executor = executor("search-", searchThreads);
+      executor.setQueueCapacity(searchQueueCapacity);
+      return executor;
+   }
+
+   /**
+    * Executor running searches of asynchronous requests. Its threads still block on Solr, the blocking is only moved
+    * here from request threads, which stay free for requests served from memory. There is no point in more threads
+    * than pooled Solr connections, so it is sized by the connection pool, and its queue is bounded, searches rejected
+    * by the full executor are answered with 503 at once.
+    *
+    * @return Executor for Solr requests.
+    */
+   @Bean
+   public ThreadPoolTaskExecutor solrExecutor() {
+      final ThreadPoolTaskExecutor executor = executor("solr-", solrThreads);
+      executor.setQueueCapacity(solrQueueCapacity);
+      return executor;
+   }
+
+   /**
+    * Executor writing streamed responses, so long exports do not hold request threads.
+    *
+    * @return Executor for asynchronous request processing.
+    */
+   @Bean
+   public ThreadPoolTaskExecutor exportExecutor() {
+      return executor("export-", exportThreads);
+   }
+
+   /**
+    * Executor creating thumbnails of uploaded images, so uploads do not wait for image processing.
+    *
+    * @return Executor for image processing.
+    */
+   @Bean
+   public ThreadPoolTaskExecutor imageExecutor() {
+      return executor("image-", imageThreads);
+   }
+
+   private ThreadPoolTaskExecutor executor(final String threadNamePrefix, final int threads) {
+      final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+      executor.setThreadNamePrefix(threadNamePrefix);
+      executor.setCorePoolSize(threads);
+      executor.setMaxPoolSize(threads);
+      return executor;
+   }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.config;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.exception.UnknownLanguagePairException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of language pairs configured by {@code search.translation.directions}, every pair is served by the Solr
+ * core of the same name. A pair can be referred to by its abbreviation in either translation direction, e.g. both
+ * "enru" and "ruen" resolve to the pair served by the "enru" core.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+public class LanguagePairRegistry {
+
+   /**
+    * Stands for all configured language pairs.
+    */
+   public static final String ALL = "all";
+
+   @Value("#{'${search.translation.directions}'.split(',')}")
+   private List<String> translationDirections;
+
+   private List<LanguagePair> languagePairs;
+
+   private Map<String, LanguagePair> languagePairsByAbbreviation;
+
+   @PostConstruct
+   public void init() {
+      final List<LanguagePair> pairs = new ArrayList<>();
+      final Map<String, LanguagePair> byAbbreviation = new HashMap<>();
+      for (final String translationDirection : translationDirections) {
+         final LanguagePair languagePair = LanguagePair.of(translationDirection.trim());
+         if (byAbbreviation.containsKey(languagePair.getAbbreviation())) {
+            throw new IllegalStateException("Language pair " + languagePair + " is configured twice");
+         }
+         pairs.add(languagePair);
+         byAbbreviation.put(languagePair.getAbbreviation(), languagePair);
+         byAbbreviation.putIfAbsent(languagePair.getReverseAbbreviation(), languagePair);
+      }
+      languagePairs = Collections.unmodifiableList(pairs);
+      languagePairsByAbbreviation = byAbbreviation;
+   }
+
+   /**
+    * Returns configured language pair.
+    *
+    * @param abbreviation Abbreviation of the pair in either translation direction.
+    * @return Language pair.
+    * @throws UnknownLanguagePairException If the language pair is not configured.
+    */
+   public LanguagePair get(final String abbreviation) {
+      final LanguagePair languagePair = languagePairsByAbbreviation.get(abbreviation);
+      if (languagePair == null) {
+         throw new UnknownLanguagePairException(abbreviation);
+      }
+      return languagePair;
+   }
+
+   /**
+    * Looks up configured language pair.
+    *
+    * @param abbreviation Abbreviation of the pair in either translation direction.
+    * @return Language pair or null if the language pair is not configured.
+    */
+   public LanguagePair find(final String abbreviation) {
+      return languagePairsByAbbreviation.get(abbreviation);
+   }
+
+   /**
+    * Returns configured language pairs without duplicates.
+    *
+    * @param abbreviations Abbreviations of the pairs in either translation direction, or {@value #ALL} for all
+    *                      configured pairs.
+    * @return Language pairs in the given order.
+    * @throws UnknownLanguagePairException If any of the language pairs is not configured.
+    */
+   public List<LanguagePair> get(final Collection<String> abbreviations) {
+      if (abbreviations.contains(ALL)) {
+         return languagePairs;
+      }
+      final Set<LanguagePair> pairs = new LinkedHashSet<>();
+      for (final String abbreviation : abbreviations) {
+         pairs.add(get(abbreviation));
+      }
+      return new ArrayList<>(pairs);
+   }
+
+   /**
+    * Returns all configured language pairs.
+    *
+    * @return Language pairs in the configured order.
+    */
+   public List<LanguagePair> getAll() {
+      return languagePairs;
+   }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for request, Solr, morphology and language detection metrics. Metrics are kept in Prometheus format
+ * and scraped through {@link org.lexikos.translator.controller.MetricsController}.
+ *
+ * @author Maksim Filkov
+ */
+@Configuration
+public class MetricsConfig {
+
+   /**
+    * Registry of all application metrics. Every timer publishes a percentile histogram, so percentiles can be
+    * aggregated across instances and time ranges by Prometheus.
+    *
+    * @return Meter registry.
+    */
+   @Bean
+   public PrometheusMeterRegistry meterRegistry() {
+      final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+      registry.config().meterFilter(new MeterFilter() {
+         @Override
+         public DistributionStatisticConfig configure(final Meter.Id id, final DistributionStatisticConfig config) {
+            if (id.getType() != Meter.Type.TIMER) {
+               return config;
+            }
+            return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+         }
+      });
+      return registry;
+   }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.lexikos.translator.constant.LanguagePair;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.Resource;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times search API requests. Requests processed asynchronously are timed until the asynchronous processing
+ * completes, so the time spent on the executors is included. Requests are tagged by the mapped path pattern, the
+ * language pair and the response status. Only configured language pairs become tag values, any other path value is
+ * tagged as unknown, so clients cannot grow the number of timers.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+   private static final String TIMER_NAME = "http.server.requests";
+   private static final String SEARCH_PATH = "/search/";
+   private static final String LANGUAGE_PAIR_VARIABLE = "lang";
+   private static final String UNKNOWN = "unknown";
+
+   @Resource
+   private MeterRegistry meterRegistry;
+
+   @Resource
+   private LanguagePairRegistry languagePairRegistry;
+
+   @Override
+   protected boolean shouldNotFilter(final HttpServletRequest request) {
+      return !request.getServletPath().startsWith(SEARCH_PATH);
+   }
+
+   @Override
+   protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                   final FilterChain filterChain) throws ServletException, IOException {
+      final long start = System.nanoTime();
+      try {
+         filterChain.doFilter(request, response);
+      } finally {
+         if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+               @Override
+               public void onComplete(final AsyncEvent event) {
+                  record(request, response, start);
+               }
+
+               @Override
+               public void onTimeout(final AsyncEvent event) {
+               }
+
+               @Override
+               public void onError(final AsyncEvent event) {
+               }
+
+               @Override
+               public void onStartAsync(final AsyncEvent event) {
+               }
+            });
+         } else {
+            record(request, response, start);
+         }
+      }
+   }
+
+   private void record(final HttpServletRequest request, final HttpServletResponse response, final long start) {
+      final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      final Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+      final Object abbreviation = variables instanceof Map ? ((Map<?, ?>) variables).get(LANGUAGE_PAIR_VARIABLE) : null;
+      meterRegistry.timer(TIMER_NAME, Tags.of("method", request.getMethod(),
+         "uri", pattern != null ? pattern.toString() : UNKNOWN,
+         "pair", toTagValue(abbreviation),
+         "status", String.valueOf(response.getStatus())))
+         .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+   }
+
+   private String toTagValue(final Object abbreviation) {
+      if (LanguagePairRegistry.ALL.equals(abbreviation)) {
+         return LanguagePairRegistry.ALL;
+      }
+      if (abbreviation == null) {
+         return UNKNOWN;
+      }
+      final LanguagePair languagePair = languagePairRegistry.find(abbreviation.toString());
+      return languagePair != null ? languagePair.getAbbreviation() : UNKNOWN;
+   }
+
+}
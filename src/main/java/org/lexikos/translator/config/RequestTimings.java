@@ -0,0 +1,150 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.config;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Durations of the phases of a single request, e.g. Solr queries or language detection, reported by
+ * {@link ServerTimingFilter}. The timings are bound to the thread processing the request, tasks passed to executors
+ * carry them along through {@link #propagate(Supplier)}. Durations of a phase run several times within a request are
+ * summed, so phases run concurrently can add up to more than the total time.
+ *
+ * @author Maksim Filkov
+ */
+public final class RequestTimings {
+
+   private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+   private static final String QUEUE_PHASE = "queue";
+
+   private final long startNanos = System.nanoTime();
+
+   private final Map<String, Long> phases = new LinkedHashMap<>();
+
+   private RequestTimings() {
+   }
+
+   /**
+    * Runs the action and adds its duration to the phase of the current request. Outside of a timed request the
+    * action is just run.
+    *
+    * @param phase  Phase name.
+    * @param action Action to run.
+    * @param <T>    Result type.
+    * @return Result of the action.
+    */
+   public static <T> T time(final String phase, final Supplier<T> action) {
+      final RequestTimings timings = CURRENT.get();
+      if (timings == null) {
+         return action.get();
+      }
+      final long start = System.nanoTime();
+      try {
+         return action.get();
+      } finally {
+         timings.add(phase, System.nanoTime() - start);
+      }
+   }
+
+   /**
+    * Adds the time passed since the given moment to the phase of the current request.
+    *
+    * @param phase      Phase name.
+    * @param startNanos Start of the phase as returned by {@link System#nanoTime()}.
+    */
+   public static void record(final String phase, final long startNanos) {
+      final RequestTimings timings = CURRENT.get();
+      if (timings != null) {
+         timings.add(phase, System.nanoTime() - startNanos);
+      }
+   }
+
+   /**
+    * Binds the timings of the current request to the thread the returned task runs on. Time the task waits for the
+    * executor is reported as the "queue" phase.
+    *
+    * @param task Task to be run on another thread.
+    * @param <T>  Result type.
+    * @return Task reporting to the timings of the current request.
+    */
+   public static <T> Supplier<T> propagate(final Supplier<T> task) {
+      final RequestTimings timings = CURRENT.get();
+      if (timings == null) {
+         return task;
+      }
+      final long submitted = System.nanoTime();
+      return () -> {
+         timings.add(QUEUE_PHASE, System.nanoTime() - submitted);
+         final RequestTimings previous = CURRENT.get();
+         CURRENT.set(timings);
+         try {
+            return task.get();
+         } finally {
+            if (previous != null) {
+               CURRENT.set(previous);
+            } else {
+               CURRENT.remove();
+            }
+         }
+      };
+   }
+
+   static RequestTimings bind() {
+      final RequestTimings timings = new RequestTimings();
+      CURRENT.set(timings);
+      return timings;
+   }
+
+   static void unbind() {
+      CURRENT.remove();
+   }
+
+   synchronized void add(final String phase, final long nanos) {
+      phases.merge(phase, nanos, Long::sum);
+   }
+
+   long getElapsedNanos() {
+      return System.nanoTime() - startNanos;
+   }
+
+   /**
+    * Formats the phases as the value of Server-Timing header, e.g. "solr;dur=12.35, total;dur=14.02".
+    */
+   synchronized String toServerTiming(final long totalNanos) {
+      final StringBuilder result = new StringBuilder();
+      phases.forEach((phase, nanos) -> result.append(phase).append(";dur=").append(toMillis(nanos)).append(", "));
+      return result.append("total;dur=").append(toMillis(totalNanos)).toString();
+   }
+
+   /**
+    * Formats the phases as key-value pairs for logging, e.g. "solr_ms=12.35 total_ms=14.02".
+    */
+   synchronized String toLogFields(final long totalNanos) {
+      final StringBuilder result = new StringBuilder();
+      phases.forEach((phase, nanos) -> result.append(phase).append("_ms=").append(toMillis(nanos)).append(' '));
+      return result.append("total_ms=").append(toMillis(totalNanos)).toString();
+   }
+
+   private static String toMillis(final long nanos) {
+      return String.format(Locale.ROOT, "%.2f", (double) nanos / TimeUnit.MILLISECONDS.toNanos(1));
+   }
+
+}
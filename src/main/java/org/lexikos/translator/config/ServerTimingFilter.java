@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.config;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports durations of the phases of search API requests (see {@link RequestTimings}) in the Server-Timing response
+ * header. Response bodies up to {@code server.timing.max_buffered_bytes} are buffered, so the header can be set after
+ * the body is written, and the time the body of an asynchronous request takes to be serialized is reported as the
+ * "render" phase. Larger bodies, e.g. of big batch searches, are streamed: the header is set once the buffer is full
+ * and reports the phases up to that moment. Exports are streamed and therefore not timed.
+ * <p>
+ * Requests slower than {@code server.timing.slow_request_ms} are logged together with their phases, only the
+ * {@code server.timing.slow_request_sample_rate} share of them is logged to keep the log readable under load.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+   static Logger log = Logger.getLogger(ServerTimingFilter.class.getName());
+
+   private static final String SERVER_TIMING_HEADER = "Server-Timing";
+   private static final String TIMINGS_ATTRIBUTE = RequestTimings.class.getName();
+   private static final String RENDER_PHASE = "render";
+   private static final String SEARCH_PATH = "/search/";
+   private static final String EXPORT_PATH_SUFFIX = "/export";
+
+   @Value("${server.timing.enabled}")
+   private boolean enabled;
+
+   @Value("${server.timing.slow_request_ms}")
+   private long slowRequestMs;
+
+   @Value("${server.timing.slow_request_sample_rate}")
+   private double slowRequestSampleRate;
+
+   @Value("${server.timing.max_buffered_bytes}")
+   private int maxBufferedBytes;
+
+   @Override
+   protected boolean shouldNotFilter(final HttpServletRequest request) {
+      final String path = request.getServletPath();
+      return !enabled || !path.startsWith(SEARCH_PATH) || path.endsWith(EXPORT_PATH_SUFFIX);
+   }
+
+   /**
+    * The body of an asynchronous request is written on the asynchronous dispatch, so it is filtered too.
+    */
+   @Override
+   protected boolean shouldNotFilterAsyncDispatch() {
+      return false;
+   }
+
+   @Override
+   protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                   final FilterChain filterChain) throws ServletException, IOException {
+      if (isAsyncDispatch(request)) {
+         final RequestTimings timings = (RequestTimings) request.getAttribute(TIMINGS_ATTRIBUTE);
+         final long start = System.nanoTime();
+         try {
+            filterChain.doFilter(request, response);
+         } finally {
+            if (timings != null) {
+               timings.add(RENDER_PHASE, System.nanoTime() - start);
+               if (!isAsyncStarted(request)) {
+                  complete(request, response, timings);
+               }
+            }
+         }
+         return;
+      }
+      final RequestTimings timings = RequestTimings.bind();
+      request.setAttribute(TIMINGS_ATTRIBUTE, timings);
+      final BoundedBufferResponseWrapper responseWrapper = new BoundedBufferResponseWrapper(response, maxBufferedBytes,
+         () -> response.setHeader(SERVER_TIMING_HEADER, timings.toServerTiming(timings.getElapsedNanos())));
+      try {
+         filterChain.doFilter(request, responseWrapper);
+      } finally {
+         RequestTimings.unbind();
+         if (!isAsyncStarted(request)) {
+            complete(request, responseWrapper, timings);
+         }
+      }
+   }
+
+   private void complete(final HttpServletRequest request, final HttpServletResponse response,
+                         final RequestTimings timings) throws IOException {
+      final BoundedBufferResponseWrapper responseWrapper =
+         WebUtils.getNativeResponse(response, BoundedBufferResponseWrapper.class);
+      responseWrapper.copyBodyToResponse();
+      final long totalNanos = timings.getElapsedNanos();
+      if (totalNanos >= TimeUnit.MILLISECONDS.toNanos(slowRequestMs)
+            && ThreadLocalRandom.current().nextDouble() < slowRequestSampleRate) {
+         log.warn("Slow request method=" + request.getMethod() + " uri=" + request.getRequestURI() + " status="
+               + responseWrapper.getStatus() + " " + timings.toLogFields(totalNanos));
+      }
+   }
+
+}
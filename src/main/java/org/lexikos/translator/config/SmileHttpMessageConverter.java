@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Reads and writes Smile, the binary encoding of JSON data model. Smile documents are smaller and several times
+ * cheaper to parse than JSON text, while they are produced from the same domain classes, so machine clients can
+ * request them instead of JSON by the Accept header.
+ *
+ * @author Maksim Filkov
+ */
+public class SmileHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+   public static final String SMILE_MEDIA_TYPE_VALUE = "application/x-jackson-smile";
+
+   public static final MediaType SMILE_MEDIA_TYPE = MediaType.valueOf(SMILE_MEDIA_TYPE_VALUE);
+
+   /**
+    * The Smile mapper is configured by the builder of the application JSON mapper, so both representations are
+    * produced with the same settings, modules and mix-ins. The builder itself is left unchanged.
+    *
+    * @param builder Builder of the application JSON mapper.
+    */
+   public SmileHttpMessageConverter(final Jackson2ObjectMapperBuilder builder) {
+      super(createObjectMapper(builder), SMILE_MEDIA_TYPE);
+   }
+
+   private static ObjectMapper createObjectMapper(final Jackson2ObjectMapperBuilder builder) {
+      final ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+      builder.configure(objectMapper);
+      return objectMapper;
+   }
+
+}
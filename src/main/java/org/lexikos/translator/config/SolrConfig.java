@@ -16,8 +16,16 @@
 
 package org.lexikos.translator.config;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.log4j.Logger;
+import org.apache.solr.client.solrj.impl.BinaryRequestWriter;
+import org.apache.solr.client.solrj.impl.BinaryResponseParser;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.lexikos.translator.constant.LanguagePair;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,9 +37,12 @@ import org.springframework.data.solr.repository.config.EnableSolrRepositories;
 import org.springframework.data.solr.server.SolrClientFactory;
 import org.springframework.data.solr.server.support.MulticoreSolrClientFactory;
 
+import javax.annotation.Resource;
 import java.text.MessageFormat;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration for multicore Solr server.
@@ -45,8 +56,8 @@ public class SolrConfig {
 
    static Logger log = Logger.getLogger(SolrConfig.class.getName());
 
-   @Value("#{'${search.translation.directions}'.split(',')}")
-   private List<String> translationDirections;
+   @Resource
+   private LanguagePairRegistry languagePairRegistry;
 
    @Value("${solr.server.url}")
    private String solrUrl;
@@ -57,28 +68,124 @@ public class SolrConfig {
    @Value("#{environment.SOLR_PORT_8983_TCP_PORT}")
    private String solrPort;
 
+   @Value("${solr.http.max_connections}")
+   private int maxConnections;
+
+   @Value("${solr.http.max_connections_per_host}")
+   private int maxConnectionsPerHost;
+
+   @Value("${solr.http.connect_timeout_ms}")
+   private int connectTimeout;
+
+   @Value("${solr.http.connection_request_timeout_ms}")
+   private int connectionRequestTimeout;
+
+   @Value("${solr.http.socket_timeout_ms}")
+   private int socketTimeout;
+
+   @Value("${solr.http.write_socket_timeout_ms}")
+   private int writeSocketTimeout;
+
+   @Value("${solr.http.keep_alive_ms}")
+   private long keepAlive;
+
+   @Value("${solr.http.idle_timeout_ms}")
+   private long idleTimeout;
+
+   @Value("${solr.http.validate_after_inactivity_ms}")
+   private int validateAfterInactivity;
+
+   /**
+    * Pool of connections to Solr shared by all cores. All cores are served by the same host, so the per host limit
+    * bounds the number of concurrent requests to all of them.
+    *
+    * @return Connection manager.
+    */
+   @Bean(destroyMethod = "shutdown")
+   public PoolingHttpClientConnectionManager solrConnectionManager() {
+      final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+      connectionManager.setMaxTotal(maxConnections);
+      connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+      connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+      return connectionManager;
+   }
+
+   /**
+    * HTTP client used for Solr requests. The wait for a pooled connection, the connect and the read are bounded by
+    * timeouts, idle connections are closed in background before Solr (Jetty) closes them.
+    *
+    * @return HTTP client.
+    */
+   @Bean(destroyMethod = "close")
+   public CloseableHttpClient solrHttpClient() {
+      final RequestConfig requestConfig = RequestConfig.custom()
+         .setConnectTimeout(connectTimeout)
+         .setConnectionRequestTimeout(connectionRequestTimeout)
+         .setSocketTimeout(socketTimeout)
+         .build();
+      return HttpClientBuilder.create()
+         .setConnectionManager(solrConnectionManager())
+         .setDefaultRequestConfig(requestConfig)
+         .setKeepAliveStrategy((response, context) -> {
+            final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+               context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+         })
+         .evictExpiredConnections()
+         .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+         .build();
+   }
+
+   @Bean
+   public SolrConnectionPoolStats solrConnectionPoolStats() {
+      return new SolrConnectionPoolStats(solrConnectionManager());
+   }
+
    @Bean
    public SolrClientFactory solrClientFactory() {
-      final String url = MessageFormat.format(solrUrl, solrHost, solrPort);
-      log.debug("Solr URL: " + url);
-      return new MulticoreSolrClientFactory(new HttpSolrClient(url));
+      return createSolrClientFactory(socketTimeout);
+   }
+
+   /**
+    * Solr cores of all configured language pairs (enru, deru, etc.), each pair is served by the core of the same
+    * name.
+    * @return Solr cores by language pair.
+    */
+   @Bean
+   public Map<LanguagePair, SolrTemplate> solrTemplates() {
+      return createSolrTemplates(solrClientFactory());
    }
 
    /**
-    * List of Solr cores for each translation direction (enru, deru, etc.).
-    * @return List of Solr cores.
+    * Solr cores used for changes, commits and reading of all entries. These requests take longer than searches, so
+    * they are allowed to read for {@code solr.http.write_socket_timeout_ms}; the connection pool is shared.
+    * @return Solr cores by language pair.
     */
    @Bean
-   public List<SolrTemplate> solrTemplates() {
-      final List<SolrTemplate> templates = new ArrayList<>();
-      translationDirections.forEach(translationDirection -> {
-         final SolrTemplate template = new SolrTemplate(solrClientFactory());
-         template.setSolrCore(translationDirection);
+   public Map<LanguagePair, SolrTemplate> solrWriteTemplates() {
+      return createSolrTemplates(createSolrClientFactory(writeSocketTimeout));
+   }
+
+   private SolrClientFactory createSolrClientFactory(final int soTimeout) {
+      final String url = MessageFormat.format(solrUrl, solrHost, solrPort);
+      log.debug("Solr URL: " + url);
+      final HttpSolrClient solrClient = new HttpSolrClient(url, solrHttpClient(), new BinaryResponseParser());
+      solrClient.setRequestWriter(new BinaryRequestWriter());
+      solrClient.setConnectionTimeout(connectTimeout);
+      solrClient.setSoTimeout(soTimeout);
+      return new MulticoreSolrClientFactory(solrClient);
+   }
+
+   private Map<LanguagePair, SolrTemplate> createSolrTemplates(final SolrClientFactory solrClientFactory) {
+      final Map<LanguagePair, SolrTemplate> templates = new HashMap<>();
+      languagePairRegistry.getAll().forEach(languagePair -> {
+         final SolrTemplate template = new SolrTemplate(solrClientFactory);
+         template.setSolrCore(languagePair.getAbbreviation());
          template.setSolrConverter(new MappingSolrConverter(new SimpleSolrMappingContext()));
          template.setMappingContext(new SimpleSolrMappingContext());
-         templates.add(template);
+         templates.put(languagePair, template);
       });
-      return templates;
+      return Collections.unmodifiableMap(templates);
    }
 
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.config;
+
+import lombok.AllArgsConstructor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Exposes state of the Solr connection pool. Pending requests mean the pool is saturated: request threads are
+ * waiting for a free connection.
+ *
+ * @author Maksim Filkov
+ */
+@AllArgsConstructor
+@ManagedResource(objectName = "org.lexikos.translator:name=SolrConnectionPool")
+public class SolrConnectionPoolStats {
+
+   private final PoolingHttpClientConnectionManager connectionManager;
+
+   @ManagedAttribute(description = "Number of connections used by requests")
+   public int getLeased() {
+      return connectionManager.getTotalStats().getLeased();
+   }
+
+   @ManagedAttribute(description = "Number of requests waiting for a connection")
+   public int getPending() {
+      return connectionManager.getTotalStats().getPending();
+   }
+
+   @ManagedAttribute(description = "Number of idle connections kept alive")
+   public int getAvailable() {
+      return connectionManager.getTotalStats().getAvailable();
+   }
+
+   @ManagedAttribute(description = "Maximum number of connections")
+   public int getMax() {
+      return connectionManager.getTotalStats().getMax();
+   }
+
+   @ManagedAttribute(description = "Percentage of the maximum number of connections used by requests")
+   public int getSaturationPercent() {
+      final int max = getMax();
+      return max > 0 ? getLeased() * 100 / max : 0;
+   }
+
+}
@@ -16,21 +16,31 @@
 
 package org.lexikos.translator.config;
 
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.lexikos.translator.constant.EntryField;
+import org.lexikos.translator.constant.LanguagePair;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 
+import javax.annotation.Resource;
 import javax.validation.Validator;
 import java.util.List;
 
@@ -50,6 +60,51 @@ public class WebConfig extends WebMvcConfigurerAdapter {
    @Value("${server.image.upload.context}")
    private String serverImageUploadContext;
 
+   @Value("${morpho.http.max_connections}")
+   private int morphoMaxConnections;
+
+   @Value("${morpho.http.connect_timeout_ms}")
+   private int morphoConnectTimeout;
+
+   @Value("${morpho.http.read_timeout_ms}")
+   private int morphoReadTimeout;
+
+   @Value("${search.async.timeout_ms}")
+   private long searchTimeoutMs;
+
+   @Resource
+   private LanguagePairRegistry languagePairRegistry;
+
+   @Resource
+   private Jackson2ObjectMapperBuilder jacksonObjectMapperBuilder;
+
+   /**
+    * Language pairs in request paths are resolved by the registry, so requests for unknown pairs are rejected before
+    * reaching services.
+    */
+   @Override
+   public void addFormatters(final FormatterRegistry registry) {
+      registry.addConverter(String.class, LanguagePair.class, languagePairRegistry::get);
+      registry.addConverter(String.class, EntryField.class, EntryField::of);
+   }
+
+   /**
+    * Smile is added after JSON, so JSON stays the default representation and Smile is produced only if requested.
+    * Smile documents are written with the same Jackson configuration as JSON ones.
+    */
+   @Override
+   public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+      converters.add(new SmileHttpMessageConverter(jacksonObjectMapperBuilder));
+   }
+
+   /**
+    * Asynchronous searches are answered with 503 if not completed in time. The export endpoint sets its own timeout.
+    */
+   @Override
+   public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+      configurer.setDefaultTimeout(searchTimeoutMs);
+   }
+
    @Override
    public void addResourceHandlers(final ResourceHandlerRegistry registry) {
       registry
@@ -91,13 +146,23 @@ public class WebConfig extends WebMvcConfigurerAdapter {
    }
 
    /**
-    * Creates RestTemplate bean needed for communication with 3rd party services through REST.
+    * Creates RestTemplate bean needed for communication with 3rd party services through REST. The connections are
+    * pooled and all the waits are bounded by timeouts, so a slow service cannot block request threads indefinitely.
     *
     * @return RestTemplate bean
     */
    @Bean
    public RestTemplate restTemplate() {
-      return new RestTemplate();
+      final CloseableHttpClient httpClient = HttpClientBuilder.create()
+            .setMaxConnTotal(morphoMaxConnections)
+            .setMaxConnPerRoute(morphoMaxConnections)
+            .build();
+      final HttpComponentsClientHttpRequestFactory requestFactory =
+            new HttpComponentsClientHttpRequestFactory(httpClient);
+      requestFactory.setConnectTimeout(morphoConnectTimeout);
+      requestFactory.setConnectionRequestTimeout(morphoConnectTimeout);
+      requestFactory.setReadTimeout(morphoReadTimeout);
+      return new RestTemplate(requestFactory);
    }
 
    @Bean
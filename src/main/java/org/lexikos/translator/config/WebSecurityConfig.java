@@ -17,6 +17,7 @@
 package org.lexikos.translator.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
@@ -25,6 +26,9 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Res
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author Maksim Filkov
  */
@@ -34,8 +38,13 @@ public class WebSecurityConfig extends ResourceServerConfigurerAdapter {
 
    private static final String RESOURCE_ID = "search";
 
+   private static final String METRICS_PATH = "/prometheus";
+
    private final JwtAccessTokenConverter jwtAccessTokenConverter;
 
+   @Value("#{'${server.metrics.allowed_networks}'.split(',')}")
+   private List<String> metricsAllowedNetworks;
+
    @Autowired
    public WebSecurityConfig(JwtAccessTokenConverter jwtAccessTokenConverter) {
       this.jwtAccessTokenConverter = jwtAccessTokenConverter;
@@ -47,7 +56,8 @@ public class WebSecurityConfig extends ResourceServerConfigurerAdapter {
    }
 
    /**
-    * Defines which application paths are secured.
+    * Defines which application paths are secured. Metrics are served only to the networks listed in
+    * {@code server.metrics.allowed_networks}, e.g. the Prometheus server.
     *
     * @param http HttpSecurity instance.
     * @throws Exception
@@ -56,7 +66,12 @@ public class WebSecurityConfig extends ResourceServerConfigurerAdapter {
    public void configure(final HttpSecurity http) throws Exception {
       http
             .csrf().disable()
-            .authorizeRequests().antMatchers("/search/**").authenticated();
+            .authorizeRequests()
+            .antMatchers("/search/**").authenticated()
+            .antMatchers(METRICS_PATH).access(metricsAllowedNetworks
+                  .stream()
+                  .map(network -> "hasIpAddress('" + network.trim() + "')")
+                  .collect(Collectors.joining(" or ")));
    }
 
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.constant;
+
+/**
+ * Describes how changes of dictionary entries are committed to Solr.
+ *
+ * @author Maksim Filkov
+ */
+public enum CommitPolicy {
+
+   /**
+    * Every change is followed by its own synchronous hard commit.
+    */
+   HARD,
+
+   /**
+    * Every change is followed by its own synchronous soft commit, i.e. the change becomes visible without flushing
+    * the index to disk.
+    */
+   SOFT,
+
+   /**
+    * Changes are sent with commitWithin and Solr commits them on its own, i.e. the changes become visible eventually.
+    */
+   WITHIN,
+
+   /**
+    * Commits requested by concurrent writers within a short time window are merged into a single hard commit, the
+    * writers wait until that commit is done.
+    */
+   GROUP
+
+}
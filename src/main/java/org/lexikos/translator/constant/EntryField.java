@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.constant;
+
+import org.lexikos.translator.domain.Entry;
+
+import java.util.function.Consumer;
+
+/**
+ * Fields of dictionary entries which can be requested by search clients, so the fields not shown by the client are
+ * neither read from Solr nor serialized.
+ *
+ * @author Maksim Filkov
+ */
+public enum EntryField {
+
+   ID("id", SolrEntryFieldNames.ID_FIELD_NAME, entry -> entry.setId(null)),
+   SOURCE_PHRASE("sourcePhrase", SolrEntryFieldNames.SOURCE_PHRASE_FIELD_NAME, entry -> entry.setSourcePhrase(null)),
+   TARGET_PHRASE("targetPhrase", SolrEntryFieldNames.TARGET_PHRASE_FIELD_NAME, entry -> entry.setTargetPhrase(null)),
+   PART_OF_SPEECH("partOfSpeech", SolrEntryFieldNames.PART_OF_SPEECH_FIELD_NAME,
+      entry -> entry.setPartOfSpeech(null)),
+   DICTIONARY("dictionary", SolrEntryFieldNames.DICTIONARY_FIELD_NAME, entry -> entry.setDictionary(null)),
+   AUTHOR("author", SolrEntryFieldNames.AUTHOR_FIELD_NAME, entry -> entry.setAuthor(null)),
+   COMMENTARY("commentary", SolrEntryFieldNames.COMMENTARY_FIELD_NAME, entry -> entry.setCommentary(null)),
+   IMAGE_NAME("imageName", SolrEntryFieldNames.IMAGE_NAME_FIELD_NAME, entry -> entry.setImageName(null)),
+   DATE("date", SolrEntryFieldNames.DATE_FIELD_NAME, entry -> entry.setDate(null)),
+   PRONUNCIATION("pronunciation", SolrEntryFieldNames.PRONUNCIATION_FIELD_NAME,
+      entry -> entry.setPronunciation(null));
+
+   private final String name;
+
+   private final String solrFieldName;
+
+   private final Consumer<Entry> clearer;
+
+   EntryField(final String name, final String solrFieldName, final Consumer<Entry> clearer) {
+      this.name = name;
+      this.solrFieldName = solrFieldName;
+      this.clearer = clearer;
+   }
+
+   /**
+    * Returns the field by its name in JSON representation of entries, e.g. "sourcePhrase".
+    *
+    * @param name Field name.
+    * @return Field.
+    * @throws IllegalArgumentException If there is no such field.
+    */
+   public static EntryField of(final String name) {
+      for (final EntryField field : values()) {
+         if (field.name.equals(name.trim())) {
+            return field;
+         }
+      }
+      throw new IllegalArgumentException("Unknown entry field " + name);
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public String getSolrFieldName() {
+      return solrFieldName;
+   }
+
+   /**
+    * Removes value of the field from the entry.
+    *
+    * @param entry Entry to change.
+    */
+   public void clear(final Entry entry) {
+      clearer.accept(entry);
+   }
+
+}
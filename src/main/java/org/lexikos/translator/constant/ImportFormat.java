@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.constant;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Describes supported formats of dictionary files, every line of a file holds a single entry.
+ *
+ * @author Maksim Filkov
+ */
+public enum ImportFormat {
+
+   /**
+    * Newline delimited JSON, i.e. each line is a JSON object describing an entry.
+    */
+   NDJSON,
+
+   /**
+    * Tab separated values in the order: source phrase, target phrase, commentary, dictionary, author, pronunciation.
+    * The trailing values are optional.
+    */
+   TSV;
+
+   /**
+    * Media type of newline delimited JSON.
+    */
+   public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+   /**
+    * Media type of tab separated values.
+    */
+   public static final String TSV_MEDIA_TYPE = "text/tab-separated-values";
+
+   /**
+    * Returns dictionary file format by its content type.
+    *
+    * @param contentType Content type, e.g. "text/tab-separated-values; charset=UTF-8".
+    * @return Dictionary file format.
+    */
+   public static ImportFormat get(final String contentType) {
+      final MediaType mediaType = MediaType.parseMediaType(contentType);
+      return mediaType.isCompatibleWith(MediaType.parseMediaType(TSV_MEDIA_TYPE)) ? TSV : NDJSON;
+   }
+
+}
@@ -16,37 +16,59 @@
 
 package org.lexikos.translator.constant;
 
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+import java.util.regex.Pattern;
+
 /**
- * Describes typical language pair.
+ * Describes typical language pair, e.g. English-Russian (enru). Language pairs served by the application are
+ * configured by {@code search.translation.directions} and registered in
+ * {@link org.lexikos.translator.config.LanguagePairRegistry}.
  *
  * @author Maksim Filkov
  */
-@AllArgsConstructor(access = AccessLevel.PRIVATE)
-public enum LanguagePair {
+@Getter
+@EqualsAndHashCode(of = "abbreviation")
+public final class LanguagePair {
 
-   /**
-    * English-Russian language pair.
-    */
-   enru("enru"),
+   private static final Pattern ABBREVIATION = Pattern.compile("[a-z]{4}");
+
+   private final String abbreviation;
+
+   private final String sourceLanguage;
+
+   private final String targetLanguage;
 
    /**
-    * German-Russian language pair.
+    * Abbreviation of the same pair in reverse translation direction, e.g. "ruen" for "enru".
     */
-   deru("deru");
+   private final String reverseAbbreviation;
 
-   @Getter
-   private final String abbreviation;
+   private LanguagePair(final String abbreviation) {
+      this.abbreviation = abbreviation;
+      this.sourceLanguage = abbreviation.substring(0, 2);
+      this.targetLanguage = abbreviation.substring(2);
+      this.reverseAbbreviation = targetLanguage + sourceLanguage;
+   }
 
-   public String getSourceLanguage() {
-      return abbreviation.substring(0, 2);
+   /**
+    * Creates language pair from its abbreviation.
+    *
+    * @param abbreviation Two letter codes of the source and the target languages, e.g. "enru".
+    * @return Language pair.
+    * @throws IllegalArgumentException If the abbreviation is malformed.
+    */
+   public static LanguagePair of(final String abbreviation) {
+      if (abbreviation == null || !ABBREVIATION.matcher(abbreviation).matches()) {
+         throw new IllegalArgumentException("Malformed language pair: " + abbreviation);
+      }
+      return new LanguagePair(abbreviation);
    }
 
-   public String getTargetLanguage() {
-      return abbreviation.substring(2);
+   @Override
+   public String toString() {
+      return abbreviation;
    }
 
 }
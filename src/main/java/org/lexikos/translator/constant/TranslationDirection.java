@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.constant;
+
+/**
+ * Describes which phrase field of an entry matched the searched phrase.
+ *
+ * @author Maksim Filkov
+ */
+public enum TranslationDirection {
+
+   /**
+    * The searched phrase matched the source phrase field, i.e. the phrase is in the source language of the pair.
+    */
+   DIRECT,
+
+   /**
+    * The searched phrase matched the target phrase field, i.e. the phrase is in the target language of the pair.
+    */
+   REVERSE
+
+}
@@ -16,82 +16,246 @@
 
 package org.lexikos.translator.controller;
 
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.lexikos.translator.config.LanguagePairRegistry;
+import org.lexikos.translator.config.RequestTimings;
+import org.lexikos.translator.config.SmileHttpMessageConverter;
+import org.lexikos.translator.constant.EntryField;
+import org.lexikos.translator.constant.ImportFormat;
 import org.lexikos.translator.constant.LanguagePair;
 import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.EntryFilter;
+import org.lexikos.translator.domain.ImportReport;
+import org.lexikos.translator.domain.MultiPairResult;
 import org.lexikos.translator.domain.PageableResult;
+import org.lexikos.translator.service.EntryExportService;
+import org.lexikos.translator.service.EntryImportService;
 import org.lexikos.translator.service.EntryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.Size;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
- * This controller serves all requests related to translation entries.
+ * This controller serves all requests related to translation entries. Searches are processed asynchronously: they
+ * run on the Solr executor while the request thread is returned to the container. Responses are JSON, machine
+ * clients can request the more compact Smile encoding by the Accept header instead.
  *
  * @author Maksim Filkov
  */
 @Validated
 @RestController
-@RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(produces = { MediaType.APPLICATION_JSON_VALUE, SmileHttpMessageConverter.SMILE_MEDIA_TYPE_VALUE })
 public class EntryController {
 
+   private static final int MAX_BATCH_PHRASES = 10000;
+   private static final HashFunction ETAG_HASH = Hashing.murmur3_128();
+   private static final byte ETAG_SEPARATOR = 0;
+   private static final String WEAK_ETAG_PREFIX = "W/";
+   private static final String ANY_ETAG = "*";
+
+   @Value("${search.etag.max_age_s}")
+   private long cacheMaxAgeSeconds;
+
    @Resource
    private EntryService entryService;
 
+   @Resource
+   private EntryImportService entryImportService;
+
+   @Resource
+   private EntryExportService entryExportService;
+
+   @Resource
+   private LanguagePairRegistry languagePairRegistry;
+
+   @Resource
+   private ThreadPoolTaskExecutor solrExecutor;
+
+   @Resource
+   private ThreadPoolTaskExecutor exportExecutor;
+
+   @Value("${search.export.timeout_ms}")
+   private long exportTimeoutMs;
+
    /**
     * Returns all found entries which are partially (case insensitive) matched to the given phrase, e.g. for the phrase
     * "dog" the partially matched phrases are: "dog", "a dog".
     *
+    * Pages are requested either by number or, if the cursor is given, by continuation token: "*" requests the first
+    * page, and each page contains the token of the next one. Cursor paging costs the same for every page, so it
+    * should be used to go through many pages.
+    *
     * @param phrase       Phrase to search translation entries.
     * @param languagePair Language pair.
+    * @param page         Page number, ignored when the cursor is given.
+    * @param cursor       Continuation token.
+    * @param fields       Fields of entries to be returned, e.g. "sourcePhrase,targetPhrase", all fields if empty.
     * @return All found partially matched entries.
     */
    @RequestMapping(path = "/search/v1/translations/{lang}/fuzzy/", method = RequestMethod.GET)
-   public PageableResult getAll(
+   public CompletableFuture<PageableResult> getAll(
          @RequestParam @NotEmpty @Size(max = 255) final String phrase,
          @PathVariable("lang") final LanguagePair languagePair,
-         final Pageable page) {
-      return entryService.getAll(phrase, languagePair, page);
+         final Pageable page,
+         @RequestParam(name = "cursor", required = false) @Size(max = 1024) final String cursor,
+         @RequestParam(name = "fields", defaultValue = "") final Set<EntryField> fields) {
+      if (cursor != null) {
+         return async(() -> entryService.getAll(phrase, languagePair, cursor, fields));
+      }
+      return async(() -> entryService.getAll(phrase, languagePair, page, fields));
    }
 
    /**
     * Returns all found entries which are exactly (case insensitive) matched to the given phrase, e.g. for the phrase
-    * "dog" the exactly matched phrases are: "dog", "Dog", "DOG".
+    * "dog" the exactly matched phrases are: "dog", "Dog", "DOG". The response is conditional, see
+    * {@link #conditional(HttpServletRequest, Supplier)}.
     *
     * @param phrase       Phrase to search translation entries.
     * @param languagePair Language pair.
+    * @param fields       Fields of entries to be returned, e.g. "sourcePhrase,targetPhrase", all fields if empty.
+    * @param request      HTTP request.
     * @return All found exactly matched entries.
     */
    @RequestMapping(path = "/search/v1/translations/{lang}/", method = RequestMethod.GET)
-   public List<Entry> getAll(
+   public CompletableFuture<ResponseEntity<List<Entry>>> getAll(
+         @RequestParam("phrase") @NotEmpty @Size(max = 255) final String phrase,
+         @PathVariable("lang") final LanguagePair languagePair,
+         @RequestParam(name = "fields", defaultValue = "") final Set<EntryField> fields,
+         final HttpServletRequest request) {
+      return conditional(request, () -> entryService.project(entryService.getAll(phrase, languagePair), fields));
+   }
+
+   /**
+    * Returns all found entries which are exactly (case insensitive) matched to each of the given phrases. Intended for
+    * text processing: a whole text can be looked up token by token within one request.
+    *
+    * @param languagePair Language pair.
+    * @param phrases      Phrases to search translation entries.
+    * @param fields       Fields of entries to be returned, e.g. "sourcePhrase,targetPhrase", all fields if empty.
+    * @return All found exactly matched entries by phrase.
+    */
+   @RequestMapping(path = "/search/v1/translations/{lang}/batch", method = RequestMethod.POST,
+         consumes = { MediaType.APPLICATION_JSON_VALUE, SmileHttpMessageConverter.SMILE_MEDIA_TYPE_VALUE })
+   public CompletableFuture<Map<String, List<Entry>>> getAll(
+         @PathVariable("lang") final LanguagePair languagePair,
+         @RequestBody @NotEmpty @Size(max = MAX_BATCH_PHRASES) final List<String> phrases,
+         @RequestParam(name = "fields", defaultValue = "") final Set<EntryField> fields) {
+      return async(() -> {
+         final Map<String, List<Entry>> entries = entryService.getAll(phrases, languagePair);
+         entries.replaceAll((phrase, phraseEntries) -> entryService.project(phraseEntries, fields));
+         return entries;
+      });
+   }
+
+   /**
+    * Returns all found entries which are exactly (case insensitive) matched to the given phrase in several language
+    * pairs, so the client does not need to know the translation direction. The language pairs are searched
+    * concurrently; the pairs which have not answered in time or have failed are listed in the result.
+    *
+    * @param phrase        Phrase to search translation entries.
+    * @param languagePairs Abbreviations of language pairs, or "all" for all supported pairs.
+    * @param fields        Fields of entries to be returned, e.g. "sourcePhrase,targetPhrase", all fields if empty.
+    * @return All found exactly matched entries by language pair.
+    */
+   @RequestMapping(path = "/search/v1/translations/", method = RequestMethod.GET)
+   public CompletableFuture<MultiPairResult> getAll(
          @RequestParam("phrase") @NotEmpty @Size(max = 255) final String phrase,
-         @PathVariable("lang") final LanguagePair languagePair) {
-      return entryService.getAll(phrase, languagePair);
+         @RequestParam(name = "lang", defaultValue = LanguagePairRegistry.ALL) final List<String> languagePairs,
+         @RequestParam(name = "fields", defaultValue = "") final Set<EntryField> fields) {
+      final List<LanguagePair> pairs = languagePairRegistry.get(languagePairs);
+      return async(() -> {
+         final MultiPairResult result = entryService.getAll(phrase, pairs);
+         result.getEntries().replaceAll((pair, pairEntries) -> entryService.project(pairEntries, fields));
+         return result;
+      });
    }
 
    /**
-    * Returns a single (exact) translation entry defined by its identifier.
+    * Returns the most popular source and target phrases starting with the given prefix, e.g. for the prefix "do" the
+    * completions are: "dog", "door", "do". Suggestions are served from memory only, so the endpoint is cheap enough
+    * to be called on every keystroke.
+    *
+    * @param prefix       Prefix of phrases.
+    * @param languagePair Language pair.
+    * @param limit        Maximum number of returned phrases.
+    * @return Completed phrases ordered by popularity.
+    */
+   @RequestMapping(path = "/search/v1/translations/{lang}/suggest", method = RequestMethod.GET)
+   public List<String> suggest(
+         @RequestParam("prefix") @NotEmpty @Size(max = 255) final String prefix,
+         @PathVariable("lang") final LanguagePair languagePair,
+         @RequestParam(name = "limit", defaultValue = "10") @Min(1) final int limit) {
+      return entryService.suggest(prefix, languagePair, limit);
+   }
+
+   /**
+    * Returns source and target phrases within a few typos of the given phrase, e.g. for the phrase "dgo" the
+    * corrections are: "dog", "door". Intended as "did you mean" fallback when an exact search finds nothing;
+    * corrections are served from memory only.
+    *
+    * @param phrase       Possibly misspelled phrase.
+    * @param languagePair Language pair.
+    * @param limit        Maximum number of returned phrases.
+    * @return Corrected phrases, the closest and then the most frequent ones first.
+    */
+   @RequestMapping(path = "/search/v1/translations/{lang}/spelling", method = RequestMethod.GET)
+   public List<String> correct(
+         @RequestParam("phrase") @NotEmpty @Size(max = 255) final String phrase,
+         @PathVariable("lang") final LanguagePair languagePair,
+         @RequestParam(name = "limit", defaultValue = "10") @Min(1) final int limit) {
+      return entryService.correct(phrase, languagePair, limit);
+   }
+
+   /**
+    * Returns a single (exact) translation entry defined by its identifier. The response is conditional, see
+    * {@link #conditional(HttpServletRequest, Supplier)}.
     *
     * @param entryId      Entry unique identifier.
     * @param languagePair Language pair.
+    * @param request      HTTP request.
     * @return A single translation entry matching the identifier.
     */
    @RequestMapping(path = "/search/v1/translation/{lang}/", method = RequestMethod.GET)
-   public Entry get(
+   public CompletableFuture<ResponseEntity<Entry>> get(
          @RequestParam("entryId") @NotEmpty @Size(max = 255) final String entryId,
-         @PathVariable("lang") final LanguagePair languagePair) {
-      return entryService.get(entryId, languagePair);
+         @PathVariable("lang") final LanguagePair languagePair,
+         final HttpServletRequest request) {
+      return conditional(request, () -> entryService.get(entryId, languagePair));
    }
 
    /**
@@ -107,6 +271,55 @@ public class EntryController {
       return entryService.create(entry, languagePair);
    }
 
+   /**
+    * Imports a whole dictionary streamed in the request body, one entry per line. Both newline delimited JSON and tab
+    * separated values are supported, see {@link ImportFormat}.
+    *
+    * @param languagePair Language pair.
+    * @param contentType  Dictionary format.
+    * @param dictionary   Dictionary entries.
+    * @return Import report with the number of imported entries, throughput and rejected lines.
+    */
+   @RequestMapping(path = "/search/v1/translations/{lang}/import", method = RequestMethod.POST,
+         consumes = { ImportFormat.NDJSON_MEDIA_TYPE, ImportFormat.TSV_MEDIA_TYPE })
+   public ImportReport importEntries(@PathVariable("lang") final LanguagePair languagePair,
+                                     @RequestHeader(HttpHeaders.CONTENT_TYPE) final String contentType,
+                                     final InputStream dictionary) {
+      return entryImportService.importEntries(dictionary, ImportFormat.get(contentType), languagePair);
+   }
+
+   /**
+    * Exports all entries of the language pair as newline delimited JSON, optionally only the entries of the given
+    * dictionary, author or date range. The entries are streamed as they are read from Solr by the export executor,
+    * the export may take up to {@code search.export.timeout_ms}; both apply to this endpoint only.
+    *
+    * @param languagePair Language pair.
+    * @param dictionary   Dictionary of exported entries.
+    * @param author       Author of exported entries.
+    * @param from         Inclusive lower bound of entry date, ISO formatted.
+    * @param to           Inclusive upper bound of entry date, ISO formatted.
+    * @param response     HTTP response the entries are written to, one entry per line.
+    * @return Export task.
+    */
+   @RequestMapping(path = "/search/v1/translations/{lang}/export", method = RequestMethod.GET,
+         produces = ImportFormat.NDJSON_MEDIA_TYPE)
+   public WebAsyncTask<Void> exportEntries(
+         @PathVariable("lang") final LanguagePair languagePair,
+         @RequestParam(name = "dictionary", required = false) final String dictionary,
+         @RequestParam(name = "author", required = false) final String author,
+         @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+         final Date from,
+         @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+         final Date to,
+         final HttpServletResponse response) {
+      final EntryFilter filter = new EntryFilter(dictionary, author, from, to);
+      return new WebAsyncTask<>(exportTimeoutMs, exportExecutor, () -> {
+         response.setContentType(ImportFormat.NDJSON_MEDIA_TYPE);
+         entryExportService.exportEntries(languagePair, filter, response.getOutputStream());
+         return null;
+      });
+   }
+
    /**
     * Updates an existing translation entry.
     *
@@ -145,4 +358,75 @@ public class EntryController {
       entryService.delete(entryId, languagePair);
    }
 
+   /**
+    * Runs the lookup and answers with 304 if the client already has its result. The entity tag is derived from the
+    * returned entries themselves and from the request, so it changes exactly when the served result or the requested
+    * representation changes, however the entries were found, e.g. in the exact match cache. A 304 response saves
+    * sending and parsing the result, while the lookup itself is mostly served from memory. The responses are cached
+    * by the client only, since they are returned to authenticated users.
+    */
+   private <T> CompletableFuture<ResponseEntity<T>> conditional(final HttpServletRequest request,
+                                                                final Supplier<T> lookup) {
+      final String uri = request.getRequestURI();
+      final String query = String.valueOf(request.getQueryString());
+      final String accept = String.valueOf(request.getHeader(HttpHeaders.ACCEPT));
+      final List<String> ifNoneMatch = Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH));
+      final CacheControl cacheControl = CacheControl.maxAge(cacheMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate();
+      return async(() -> {
+         final T result = lookup.get();
+         final String eTag = "W/\"" + ETAG_HASH.newHasher()
+            .putString(uri, StandardCharsets.UTF_8).putByte(ETAG_SEPARATOR)
+            .putString(query, StandardCharsets.UTF_8).putByte(ETAG_SEPARATOR)
+            .putString(accept, StandardCharsets.UTF_8).putByte(ETAG_SEPARATOR)
+            .putString(String.valueOf(result), StandardCharsets.UTF_8)
+            .hash() + "\"";
+         if (isNotModified(eTag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+               .eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).<T>build();
+         }
+         return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).body(result);
+      });
+   }
+
+   /**
+    * Compares the entity tag with the If-None-Match headers of the request using weak comparison.
+    */
+   private static boolean isNotModified(final String eTag, final List<String> ifNoneMatch) {
+      for (final String header : ifNoneMatch) {
+         for (final String tag : header.split(",")) {
+            final String trimmed = tag.trim();
+            if (ANY_ETAG.equals(trimmed) || stripWeakPrefix(trimmed).equals(stripWeakPrefix(eTag))) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private static String stripWeakPrefix(final String eTag) {
+      return eTag.startsWith(WEAK_ETAG_PREFIX) ? eTag.substring(WEAK_ETAG_PREFIX.length()) : eTag;
+   }
+
+   /**
+    * Runs the search on the Solr executor, so the request thread is released while waiting for Solr. Exceptions are
+    * passed as they are, so the exception handlers apply to them the same way as to synchronous requests, including
+    * the rejection by the full executor.
+    */
+   private <T> CompletableFuture<T> async(final Supplier<T> search) {
+      final CompletableFuture<T> result = new CompletableFuture<>();
+      final Supplier<T> timedSearch = RequestTimings.propagate(search);
+      try {
+         solrExecutor.execute(() -> {
+            try {
+               result.complete(timedSearch.get());
+            } catch (final RuntimeException e) {
+               result.completeExceptionally(e);
+            }
+         });
+      } catch (final TaskRejectedException e) {
+         result.completeExceptionally(e);
+      }
+      return result;
+   }
+
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.controller;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+
+/**
+ * This controller exposes application metrics to be scraped by Prometheus.
+ *
+ * @author Maksim Filkov
+ */
+@RestController
+public class MetricsController {
+
+   @Resource
+   private PrometheusMeterRegistry meterRegistry;
+
+   /**
+    * Returns all metrics in Prometheus text format.
+    *
+    * @return Metrics.
+    */
+   @RequestMapping(path = "/prometheus", method = RequestMethod.GET, produces = TextFormat.CONTENT_TYPE_004)
+   public String scrape() {
+      return meterRegistry.scrape();
+   }
+
+}
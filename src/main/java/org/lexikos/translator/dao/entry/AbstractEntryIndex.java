@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.constant.LanguagePair;
+
+import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Base class for in-memory indexes built over all entries of a language pair. The entries themselves are kept by
+ * {@link IndexedEntries}, which creates an index for every generation of entries and feeds the changes to it; an
+ * index keeps only its own lookup structures.
+ *
+ * @param <T> Index type, must be safe for concurrent use.
+ * @author Maksim Filkov
+ */
+public abstract class AbstractEntryIndex<T> {
+
+   @Resource
+   private IndexedEntries indexedEntries;
+
+   /**
+    * Creates a new empty index.
+    *
+    * @param entries Entries the index is built over by identifier, shared by all indexes of the generation.
+    * @return Empty index.
+    */
+   protected abstract T create(final Map<String, CompactEntry> entries);
+
+   /**
+    * Adds an entry to the index. Entries are saved as upserts, so the entry can replace an indexed one with the same
+    * identifier.
+    *
+    * @param index    Index to change.
+    * @param entryId  Identifier of the entry.
+    * @param entry    Entry to add.
+    * @param previous Replaced entry or null if the entry is new.
+    */
+   protected abstract void add(final T index, final String entryId, final CompactEntry entry,
+                               final CompactEntry previous);
+
+   /**
+    * Removes an entry from the index.
+    *
+    * @param index    Index to change.
+    * @param entryId  Identifier of the entry.
+    * @param previous Removed entry.
+    */
+   protected abstract void remove(final T index, final String entryId, final CompactEntry previous);
+
+   /**
+    * Returns index of the language pair.
+    *
+    * @param languagePair Language pair.
+    * @return Index or null if the index has not been loaded yet.
+    */
+   protected T get(final LanguagePair languagePair) {
+      return indexedEntries.get(this, languagePair);
+   }
+
+   /**
+    * Returns indexes of all loaded language pairs.
+    *
+    * @return Loaded indexes.
+    */
+   protected Collection<T> getAll() {
+      return indexedEntries.getAll(this);
+   }
+
+}
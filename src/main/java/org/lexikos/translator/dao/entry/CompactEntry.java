@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.domain.Entry;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Entry kept by in-memory indexes. All text fields are encoded into a single UTF-8 byte array, each preceded by its
+ * length, which takes several times less memory than an {@link Entry} with a string per field. The identifier is not
+ * kept, it is the key the record is stored under.
+ *
+ * @author Maksim Filkov
+ */
+final class CompactEntry {
+
+   private static final int FIELD_COUNT = 8;
+   private static final int SOURCE_PHRASE = 0;
+   private static final int TARGET_PHRASE = 1;
+   private static final int PART_OF_SPEECH = 2;
+   private static final int DICTIONARY = 3;
+   private static final int AUTHOR = 4;
+   private static final int COMMENTARY = 5;
+   private static final int IMAGE_NAME = 6;
+   private static final int PRONUNCIATION = 7;
+
+   private static final long NO_DATE = Long.MIN_VALUE;
+
+   private static final int OBJECT_HEADER_BYTES = 16;
+   private static final int REFERENCE_BYTES = 8;
+   private static final int LONG_BYTES = 8;
+
+   private final byte[] fields;
+
+   private final long date;
+
+   private CompactEntry(final byte[] fields, final long date) {
+      this.fields = fields;
+      this.date = date;
+   }
+
+   /**
+    * Encodes all fields of the entry except of the identifier.
+    *
+    * @param entry Entry to encode.
+    * @return Compact record of the entry.
+    */
+   static CompactEntry of(final Entry entry) {
+      final String[] values = new String[FIELD_COUNT];
+      values[SOURCE_PHRASE] = entry.getSourcePhrase();
+      values[TARGET_PHRASE] = entry.getTargetPhrase();
+      values[PART_OF_SPEECH] = entry.getPartOfSpeech();
+      values[DICTIONARY] = entry.getDictionary();
+      values[AUTHOR] = entry.getAuthor();
+      values[COMMENTARY] = entry.getCommentary();
+      values[IMAGE_NAME] = entry.getImageName();
+      values[PRONUNCIATION] = entry.getPronunciation();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+      for (final String value : values) {
+         if (value == null) {
+            writeLength(out, 0);
+         } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeLength(out, bytes.length + 1);
+            out.write(bytes, 0, bytes.length);
+         }
+      }
+      return new CompactEntry(out.toByteArray(), entry.getDate() != null ? entry.getDate().getTime() : NO_DATE);
+   }
+
+   /**
+    * Decodes the record into a new entry.
+    *
+    * @param id Identifier of the entry.
+    * @return Decoded entry.
+    */
+   Entry toEntry(final String id) {
+      final String[] values = decode(FIELD_COUNT);
+      return new Entry(id, values[SOURCE_PHRASE], values[PART_OF_SPEECH], values[TARGET_PHRASE], values[DICTIONARY],
+         values[AUTHOR], values[COMMENTARY], values[IMAGE_NAME], date != NO_DATE ? new Date(date) : null,
+         values[PRONUNCIATION]);
+   }
+
+   String getSourcePhrase() {
+      return decode(SOURCE_PHRASE + 1)[SOURCE_PHRASE];
+   }
+
+   String getTargetPhrase() {
+      return decode(TARGET_PHRASE + 1)[TARGET_PHRASE];
+   }
+
+   /**
+    * Returns estimated number of bytes taken by the record on a 64-bit JVM.
+    *
+    * @return Estimated size in bytes.
+    */
+   long getEstimatedBytes() {
+      return OBJECT_HEADER_BYTES + REFERENCE_BYTES + LONG_BYTES + OBJECT_HEADER_BYTES + fields.length;
+   }
+
+   /**
+    * Decodes the given number of leading fields, the rest of the fields is not read.
+    */
+   private String[] decode(final int count) {
+      final String[] values = new String[count];
+      int position = 0;
+      for (int i = 0; i < count; i++) {
+         int length = 0;
+         int shift = 0;
+         int value;
+         do {
+            value = fields[position++];
+            length |= (value & 0x7F) << shift;
+            shift += 7;
+         } while ((value & 0x80) != 0);
+         if (length > 0) {
+            values[i] = new String(fields, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+         }
+      }
+      return values;
+   }
+
+   /**
+    * Writes the length as a variable-length integer, 7 bits per byte.
+    */
+   private static void writeLength(final ByteArrayOutputStream out, final int length) {
+      int remaining = length;
+      while ((remaining & ~0x7F) != 0) {
+         out.write((remaining & 0x7F) | 0x80);
+         remaining >>>= 7;
+      }
+      out.write(remaining);
+   }
+
+}
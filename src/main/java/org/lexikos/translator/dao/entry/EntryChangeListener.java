@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.Entry;
+
+/**
+ * Listens to changes of dictionary entries made through {@link EntryRepositoryCustom} and to reloads of all entries
+ * of a language pair from Solr made by {@link EntryIndexLoader}.
+ *
+ * @author Maksim Filkov
+ */
+public interface EntryChangeListener {
+
+   /**
+    * Called when an entry is saved.
+    *
+    * @param entry        Saved entry.
+    * @param languagePair Language pair.
+    */
+   void added(final Entry entry, final LanguagePair languagePair);
+
+   /**
+    * Called when an entry is deleted.
+    *
+    * @param entryId      Identifier of the deleted entry.
+    * @param languagePair Language pair.
+    */
+   void removed(final String entryId, final LanguagePair languagePair);
+
+   /**
+    * Called before all entries of the language pair are read from Solr.
+    *
+    * @param languagePair Language pair.
+    */
+   void reloadStarted(final LanguagePair languagePair);
+
+   /**
+    * Called for every entry read from Solr while reloading.
+    *
+    * @param entry        Entry read from Solr.
+    * @param languagePair Language pair.
+    */
+   void reloaded(final Entry entry, final LanguagePair languagePair);
+
+   /**
+    * Called after all entries of the language pair are read from Solr.
+    *
+    * @param languagePair Language pair.
+    */
+   void reloadFinished(final LanguagePair languagePair);
+
+   /**
+    * Called instead of {@link #reloadFinished(LanguagePair)} if entries of the language pair could not be read, the
+    * entries read so far should be dropped.
+    *
+    * @param languagePair Language pair.
+    */
+   void reloadFailed(final LanguagePair languagePair);
+
+}
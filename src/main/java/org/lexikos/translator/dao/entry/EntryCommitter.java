@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.apache.log4j.Logger;
+import org.lexikos.translator.constant.CommitPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.solr.core.SolrTemplate;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commits changes of dictionary entries to Solr cores according to the configured {@link CommitPolicy}.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+@ManagedResource(objectName = "org.lexikos.translator:name=EntryCommitter")
+public class EntryCommitter {
+
+   static Logger log = Logger.getLogger(EntryCommitter.class.getName());
+
+   private static final int NO_COMMIT_WITHIN = -1;
+
+   private final Map<SolrTemplate, CompletableFuture<Void>> pendingCommits = new HashMap<>();
+
+   private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("solr-commit-"));
+
+   private final AtomicLong requestedCommits = new AtomicLong();
+
+   private final AtomicLong performedCommits = new AtomicLong();
+
+   @Value("${search.commit.policy}")
+   private CommitPolicy policy;
+
+   @Value("${search.commit.within_ms}")
+   private int commitWithinMs;
+
+   @Value("${search.commit.group_window_ms}")
+   private long groupWindowMs;
+
+   @Value("${search.commit.timeout_ms}")
+   private long commitTimeoutMs;
+
+   /**
+    * Returns commitWithin value to be sent along with changes.
+    *
+    * @return Time in milliseconds Solr should commit the changes within, or -1 if they are committed explicitly.
+    */
+   public int getCommitWithin() {
+      return policy == CommitPolicy.WITHIN ? commitWithinMs : NO_COMMIT_WITHIN;
+   }
+
+   /**
+    * Commits changes made in the given Solr core. Depending on the policy the commit is performed immediately, merged
+    * with commits of concurrent writers or left to Solr.
+    *
+    * @param solr Solr core to commit changes in.
+    */
+   public void commit(final SolrTemplate solr) {
+      requestedCommits.incrementAndGet();
+      switch (policy) {
+         case HARD:
+            solr.commit();
+            performedCommits.incrementAndGet();
+            break;
+         case SOFT:
+            solr.softCommit();
+            performedCommits.incrementAndGet();
+            break;
+         case GROUP:
+            awaitGroupCommit(solr);
+            break;
+         default:
+            break;
+      }
+   }
+
+   @ManagedAttribute(description = "Commit policy")
+   public String getPolicy() {
+      return policy.name();
+   }
+
+   @ManagedAttribute(description = "Number of commits requested by writers")
+   public long getRequestedCommits() {
+      return requestedCommits.get();
+   }
+
+   @ManagedAttribute(description = "Number of commits actually sent to Solr")
+   public long getPerformedCommits() {
+      return performedCommits.get();
+   }
+
+   @ManagedAttribute(description = "Number of requested commits merged into other commits or left to Solr")
+   public long getMergedCommits() {
+      return requestedCommits.get() - performedCommits.get();
+   }
+
+   /**
+    * Stops the scheduler, commits already scheduled are still performed, so no writer is left waiting.
+    */
+   @PreDestroy
+   public void shutdown() {
+      scheduler.shutdown();
+   }
+
+   private void awaitGroupCommit(final SolrTemplate solr) {
+      final CompletableFuture<Void> commit;
+      synchronized (pendingCommits) {
+         CompletableFuture<Void> pending = pendingCommits.get(solr);
+         if (pending == null) {
+            pending = new CompletableFuture<>();
+            try {
+               scheduler.schedule(() -> flush(solr), groupWindowMs, TimeUnit.MILLISECONDS);
+            } catch (final RejectedExecutionException e) {
+               throw new IllegalStateException("Unable to schedule commit to " + solr.getSolrCore(), e);
+            }
+            pendingCommits.put(solr, pending);
+         }
+         commit = pending;
+      }
+      try {
+         commit.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+      } catch (final TimeoutException e) {
+         throw new IllegalStateException("Commit to " + solr.getSolrCore() + " did not finish in " + commitTimeoutMs
+               + " ms", e);
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while waiting for commit to " + solr.getSolrCore(), e);
+      } catch (final ExecutionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new IllegalStateException("Unable to commit to " + solr.getSolrCore(), e.getCause());
+      }
+   }
+
+   /**
+    * Performs a single commit for all writers waiting on the given core. Writers coming while the commit is running
+    * wait for the next one, since their changes might be missed by the current commit.
+    */
+   private void flush(final SolrTemplate solr) {
+      final CompletableFuture<Void> pending;
+      synchronized (pendingCommits) {
+         pending = pendingCommits.remove(solr);
+      }
+      try {
+         solr.commit();
+         performedCommits.incrementAndGet();
+         pending.complete(null);
+      } catch (final RuntimeException e) {
+         log.error("Unable to commit to " + solr.getSolrCore(), e);
+         pending.completeExceptionally(e);
+      }
+   }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.apache.log4j.Logger;
+import org.lexikos.translator.config.LanguagePairRegistry;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.Entry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.solr.core.query.result.Cursor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads all entries of every language pair from Solr into in-memory indexes ({@link EntryChangeListener}s) on
+ * startup, and reloads them whenever the exact match index turns out to be inconsistent with Solr.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+public class EntryIndexLoader {
+
+   static Logger log = Logger.getLogger(EntryIndexLoader.class.getName());
+
+   @Value("${search.index.enabled}")
+   private boolean enabled;
+
+   @Resource
+   private EntryRepositoryImpl entryRepository;
+
+   @Resource
+   private ExactMatchIndex exactMatchIndex;
+
+   @Resource
+   private LanguagePairRegistry languagePairRegistry;
+
+   @Resource
+   private List<EntryChangeListener> entryChangeListeners;
+
+   private final Set<LanguagePair> inconsistentLanguagePairs = ConcurrentHashMap.newKeySet();
+
+   private volatile boolean loaded;
+
+   @EventListener(ApplicationReadyEvent.class)
+   public void load() {
+      if (enabled) {
+         for (final LanguagePair languagePair : languagePairRegistry.getAll()) {
+            reload(languagePair);
+         }
+         loaded = true;
+      }
+   }
+
+   /**
+    * Compares number of indexed entries with number of entries in Solr. Since recent changes might be not committed
+    * yet, the language pair is reloaded only if the numbers differ on two consecutive checks. The checks start once
+    * the initial load has finished, otherwise the scheduled check running on context refresh would find all indexes
+    * empty and load every language pair a second time.
+    */
+   @Scheduled(fixedDelayString = "${search.index.check_interval_ms}")
+   public void check() {
+      if (!enabled || !loaded) {
+         return;
+      }
+      for (final LanguagePair languagePair : languagePairRegistry.getAll()) {
+         final long indexed = exactMatchIndex.size(languagePair);
+         final long stored = entryRepository.count(languagePair);
+         if (indexed == stored) {
+            inconsistentLanguagePairs.remove(languagePair);
+         } else if (indexed < 0 || !inconsistentLanguagePairs.add(languagePair)) {
+            log.warn("Index of " + languagePair + " has " + indexed + " entries, Solr has " + stored);
+            inconsistentLanguagePairs.remove(languagePair);
+            reload(languagePair);
+         }
+      }
+   }
+
+   private synchronized void reload(final LanguagePair languagePair) {
+      final long start = System.currentTimeMillis();
+      long loaded = 0;
+      boolean finished = false;
+      entryChangeListeners.forEach(listener -> listener.reloadStarted(languagePair));
+      try {
+         try (final Cursor<Entry> entries = entryRepository.findAll(languagePair)) {
+            while (entries.hasNext()) {
+               final Entry entry = entries.next();
+               entryChangeListeners.forEach(listener -> listener.reloaded(entry, languagePair));
+               loaded++;
+            }
+         }
+         entryChangeListeners.forEach(listener -> listener.reloadFinished(languagePair));
+         finished = true;
+      } catch (final IOException | RuntimeException e) {
+         log.error("Unable to load entries of " + languagePair, e);
+         return;
+      } finally {
+         if (!finished) {
+            entryChangeListeners.forEach(listener -> listener.reloadFailed(languagePair));
+         }
+      }
+      log.info("Loaded " + loaded + " entries of " + languagePair + " in " + (System.currentTimeMillis() - start)
+            + " ms");
+   }
+
+}
@@ -16,10 +16,17 @@
 
 package org.lexikos.translator.dao.entry;
 
+import org.lexikos.translator.constant.EntryField;
 import org.lexikos.translator.constant.LanguagePair;
 import org.lexikos.translator.domain.Entry;
-import org.springframework.data.domain.Page;
+import org.lexikos.translator.domain.EntryFilter;
+import org.lexikos.translator.domain.MatchResult;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.solr.core.query.result.Cursor;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Repository containing dictionary entries.
@@ -28,26 +35,64 @@ import org.springframework.data.domain.Pageable;
  */
 public interface EntryRepositoryCustom {
 
+   /**
+    * Cursor requesting the first page of cursor based paging.
+    */
+   String FIRST_PAGE_CURSOR = "*";
+
    /**
     * Returns all exactly matched entries for direct translation direction, i.e. the source phrase field is used when
-    * searching.
+    * searching. If nothing is found, the entries matched in reverse translation direction (by the target phrase field)
+    * are returned.
     *
     * @param phrase       The phrase to be used when searching.
     * @param languagePair Language pair.
-    * @return List of all exactly matched entries found for given phrase.
+    * @return All exactly matched entries found for given phrase together with the direction they were matched in.
     */
-   Page<Entry> findExactlyMatched(final String phrase, final LanguagePair languagePair);
+   MatchResult findExactlyMatched(final String phrase, final LanguagePair languagePair);
+
+   /**
+    * Returns all exactly matched entries for each of the phrases, see {@link #findExactlyMatched(String,
+    * LanguagePair)}. The phrases are searched by a few Solr requests, each of them covers many phrases.
+    *
+    * @param phrases      The phrases to be used when searching.
+    * @param languagePair Language pair.
+    * @return Exactly matched entries by normalized phrase, see {@link ExactMatchIndex#normalize(String)}. Phrases
+    * without entries may be absent.
+    */
+   Map<String, MatchResult> findExactlyMatched(final Collection<String> phrases, final LanguagePair languagePair);
 
    /**
     * Returns all partially matched entries for direct translation direction, i.e. the source phrase field is used when
-    * searching. The searching is performed regarding the pagination parameters.
+    * searching. If nothing is found, the entries matched in reverse translation direction (by the target phrase field)
+    * are returned. The searching is performed regarding the pagination parameters.
     *
     * @param phrase       The phrase to be used when searching.
     * @param languagePair Language pair.
     * @param page         Pagination parameters to be used for searching.
-    * @return List of all partially matched entries found for given phrase regarding pagination parameters.
+    * @param fields       Fields to be read, besides the identifier and the phrases which are always read. All fields
+    *                     are read if empty.
+    * @return All partially matched entries found for given phrase regarding pagination parameters together with the
+    * direction they were matched in.
     */
-   Page<Entry> findPartiallyMatched(final String phrase, final LanguagePair languagePair, final Pageable page);
+   MatchResult findPartiallyMatched(final String phrase, final LanguagePair languagePair, final Pageable page,
+                                    final Set<EntryField> fields);
+
+   /**
+    * Returns a page of partially matched entries like
+    * {@link #findPartiallyMatched(String, LanguagePair, Pageable, Set)}, but pages are addressed by continuation
+    * tokens instead of page numbers, so every page costs the same regardless of its depth.
+    *
+    * @param phrase       The phrase to be used when searching.
+    * @param languagePair Language pair.
+    * @param cursor       {@link #FIRST_PAGE_CURSOR} for the first page, otherwise continuation token returned with the
+    *                     previous page.
+    * @param fields       Fields to be read, see {@link #findPartiallyMatched(String, LanguagePair, Pageable, Set)}.
+    * @return Partially matched entries together with the direction they were matched in and the continuation token of
+    * the next page.
+    */
+   MatchResult findPartiallyMatched(final String phrase, final LanguagePair languagePair, final String cursor,
+                                    final Set<EntryField> fields);
 
    Entry get(final String entryId, final LanguagePair languagePair);
 
@@ -61,8 +106,67 @@ public interface EntryRepositoryCustom {
     */
    void saveEntry(final Entry entry, final LanguagePair languagePair);
 
+   /**
+    * Saves entries in repository without committing them, see {@link #commit(LanguagePair)}.
+    *
+    * @param entries      Entries to save.
+    * @param languagePair Language pair.
+    */
+   void saveEntries(final Collection<Entry> entries, final LanguagePair languagePair);
+
+   /**
+    * Commits all saved entries.
+    *
+    * @param languagePair Language pair.
+    */
+   void commit(final LanguagePair languagePair);
+
    void deleteEntry(final String entryId, final LanguagePair languagePair);
 
+   /**
+    * Saves entry in repository in place of another one. The replaced entry is deleted by the same request, so both
+    * changes become visible together after a single commit.
+    *
+    * @param replacedId   Identifier of the replaced entry.
+    * @param entry        Entry to save.
+    * @param languagePair Language pair.
+    */
+   void replaceEntry(final String replacedId, final Entry entry, final LanguagePair languagePair);
+
    void updateEntry(final Entry entry, final LanguagePair languagePair);
 
+   /**
+    * Returns all entries of the language pair. The entries are read from Solr lazily page by page.
+    *
+    * @param languagePair Language pair.
+    * @return Cursor over all entries, it must be closed after use.
+    */
+   Cursor<Entry> findAll(final LanguagePair languagePair);
+
+   /**
+    * Returns all entries of the language pair meeting the filter. The entries are read from Solr lazily page by page.
+    *
+    * @param languagePair Language pair.
+    * @param filter       Conditions the entries should meet.
+    * @return Cursor over the entries, it must be closed after use.
+    */
+   Cursor<Entry> findAll(final LanguagePair languagePair, final EntryFilter filter);
+
+   /**
+    * Returns number of all entries of the language pair.
+    *
+    * @param languagePair Language pair.
+    * @return Number of entries.
+    */
+   long count(final LanguagePair languagePair);
+
+   /**
+    * Moves entries saved with random identifiers to identifiers derived from their content, so later saves of the
+    * same content overwrite them instead of creating duplicates. Legacy duplicates collapse into one entry.
+    *
+    * @param languagePair Language pair.
+    * @return Number of migrated entries.
+    */
+   long migrateIds(final LanguagePair languagePair);
+
 }
@@ -16,23 +16,61 @@
 
 package org.lexikos.translator.dao.entry;
 
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.lexikos.translator.config.RequestTimings;
+import org.lexikos.translator.constant.EntryField;
 import org.lexikos.translator.constant.LanguagePair;
 import org.lexikos.translator.constant.SolrEntryFieldNames;
+import org.lexikos.translator.constant.TranslationDirection;
 import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.EntryFilter;
+import org.lexikos.translator.domain.MatchResult;
+import org.lexikos.translator.exception.InvalidCursorException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.solr.core.DefaultQueryParser;
 import org.springframework.data.solr.core.SolrTemplate;
 import org.springframework.data.solr.core.query.Criteria;
+import org.springframework.data.solr.core.query.GroupOptions;
 import org.springframework.data.solr.core.query.PartialUpdate;
 import org.springframework.data.solr.core.query.Query;
+import org.springframework.data.solr.core.query.SimpleFilterQuery;
+import org.springframework.data.solr.core.query.SimpleField;
 import org.springframework.data.solr.core.query.SimpleQuery;
+import org.springframework.data.solr.core.query.SimpleStringCriteria;
+import org.springframework.data.solr.core.query.result.Cursor;
+import org.springframework.data.solr.core.query.result.GroupPage;
+import org.springframework.data.solr.core.query.result.GroupResult;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.Resource;
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * Repository containing dictionary entries.
@@ -42,15 +80,48 @@ import java.util.List;
 @Repository
 public class EntryRepositoryImpl implements EntryRepositoryCustom {
 
-   private static final String ESCAPE_CHAR = "\\";
-   private static final char[] SOLR_SPECIAL_CHARS = { '+', '-', '&', '|', '!', '(', ')', '{', '}', '[', ']', '^', '"',
-      '~', '*', '?', ':', '\\' };
+   private static final char ESCAPE_CHAR = '\\';
+   private static final String SOLR_SPECIAL_CHARS = "+-&|!(){}[]^\"~*?:\\";
    private static final String PHRASE_PLACEHOLDER = "{PHRASE}";
+   private static final String ALL_ENTRIES_EXPRESSION = "*:*";
+   private static final String SCORE_FIELD_NAME = "score";
+   private static final char DIRECT_CURSOR_PREFIX = 'S';
+   private static final char REVERSE_CURSOR_PREFIX = 'T';
+   private static final char CURSOR_SEPARATOR = '|';
+   private static final Pattern CURSOR_SEPARATOR_PATTERN =
+      Pattern.compile(Pattern.quote(String.valueOf(CURSOR_SEPARATOR)));
+   private static final int CURSOR_PARTS = 3;
+   private static final HashFunction CURSOR_SCOPE_HASH = Hashing.murmur3_32();
+   private static final char ID_SEPARATOR = '|';
+   private static final HashFunction ID_HASH = Hashing.murmur3_128();
+   private static final String QUERY_TIMER_NAME = "entry.repository.queries";
+   private static final String COMMIT_TIMER_NAME = "entry.repository.commits";
+   private static final String EMPTY_RESULT_COUNTER_NAME = "entry.repository.empty_results";
+   private static final String NO_DIRECTION = "none";
+   private static final String SOLR_PHASE = "solr";
+   private static final String SOLR_FALLBACK_PHASE = "solr-fallback";
    private final String EXACT_MATCH_SEARCH_EXPRESSION_PATTERN = "\"_prefix_ " + PHRASE_PLACEHOLDER
       + " _suffix_\"";
 
    @Resource(name = "solrTemplates")
-   private List<SolrTemplate> solars;
+   private Map<LanguagePair, SolrTemplate> solrTemplates;
+
+   @Resource(name = "solrWriteTemplates")
+   private Map<LanguagePair, SolrTemplate> solrWriteTemplates;
+
+   @Resource
+   private EntryCommitter committer;
+
+   private final DefaultQueryParser queryParser = new DefaultQueryParser();
+
+   @Resource
+   private ExactMatchIndex exactMatchIndex;
+
+   @Resource
+   private List<EntryChangeListener> entryChangeListeners;
+
+   @Resource
+   private MeterRegistry meterRegistry;
 
    @Value("${search.partial.max_distance_between_words}")
    private int maxDistanceBetweenWordsForPartialMatch;
@@ -58,37 +129,107 @@ public class EntryRepositoryImpl implements EntryRepositoryCustom {
    @Value("${search.partial.max_results_per_page}")
    private int maxResultsPerPageForPartialMatch;
 
+   @Value("${search.exact.max_results}")
+   private int maxResultsForExactMatch;
+
+   @Value("${search.export.batch_size}")
+   private int exportBatchSize;
+
+   @Value("${search.batch.chunk_size}")
+   private int batchChunkSize;
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * The entries are taken from {@link ExactMatchIndex} once it is loaded. Otherwise both translation directions are
+    * resolved by a single Solr request: the source and the target phrase fields are searched as two group queries, so
+    * the reverse direction costs no additional round trip.
+    */
    @Override
-   public Page<Entry> findExactlyMatched(final String phrase, final LanguagePair languagePair) {
-      final String escapedPhrase = escapePhraseForSolr(phrase);
-      Criteria criteria = new Criteria(SolrEntryFieldNames.SOURCE_PHRASE_EXACT_FIELD_NAME)
-         .expression(EXACT_MATCH_SEARCH_EXPRESSION_PATTERN.replace(PHRASE_PLACEHOLDER, escapedPhrase));
-      final Page<Entry> results = findAllExact(criteria, languagePair);
-      if (results.getTotalElements() > 0) {
-         return results;
+   public MatchResult findExactlyMatched(final String phrase, final LanguagePair languagePair) {
+      final long start = System.nanoTime();
+      final MatchResult indexed = RequestTimings.time("index",
+         () -> exactMatchIndex.find(phrase, languagePair, maxResultsForExactMatch));
+      if (indexed != null) {
+         meterRegistry.timer(QUERY_TIMER_NAME, queryTags("exact_index", languagePair,
+            toTagValue(indexed.getDirection()))).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+         countEmpty("exact_index", languagePair, indexed);
+         return indexed;
       }
-      criteria = new Criteria(SolrEntryFieldNames.TARGET_PHRASE_EXACT_FIELD_NAME)
-         .expression(EXACT_MATCH_SEARCH_EXPRESSION_PATTERN.replace(PHRASE_PLACEHOLDER, escapedPhrase));
-      return findAllExact(criteria, languagePair);
+      return measure("exact", languagePair, () -> findExactlyMatchedInSolr(phrase, languagePair));
    }
 
+   /**
+    * {@inheritDoc}
+    * <p>
+    * Phrases absent in {@link ExactMatchIndex} are searched in chunks of {@code search.batch.chunk_size} phrases,
+    * every chunk is a single Solr request matching any of the phrases in either phrase field. The found entries are
+    * classified by their normalized phrases, direct matches take precedence like in the single phrase search. If a
+    * chunk matches more entries than a single request returns, its phrases are searched one by one instead.
+    */
    @Override
-   public Page<Entry> findPartiallyMatched(final String phrase, final LanguagePair languagePair, final Pageable page) {
-      final String escapedPhrase = escapePhraseForSolr(phrase);
-      Criteria criteria = new Criteria(SolrEntryFieldNames.SOURCE_PHRASE_FIELD_NAME)
-         .expression("\"" + escapedPhrase + "\"" + "~" + maxDistanceBetweenWordsForPartialMatch);
-      final Page<Entry> results = findAllPartial(criteria, languagePair, page);
-      if (results.getTotalElements() > 0) {
-         return results;
+   public Map<String, MatchResult> findExactlyMatched(final Collection<String> phrases,
+                                                     final LanguagePair languagePair) {
+      final Map<String, MatchResult> results = new HashMap<>();
+      final List<String> notIndexed = new ArrayList<>();
+      for (final String phrase : phrases) {
+         final MatchResult indexed = exactMatchIndex.find(phrase, languagePair, maxResultsForExactMatch);
+         if (indexed != null) {
+            results.put(ExactMatchIndex.normalize(phrase), indexed);
+         } else {
+            notIndexed.add(phrase);
+         }
       }
-      criteria = new Criteria(SolrEntryFieldNames.TARGET_PHRASE_FIELD_NAME)
-         .expression("\"" + escapedPhrase + "\"" + "~" + maxDistanceBetweenWordsForPartialMatch);
-      return findAllPartial(criteria, languagePair, page);
+      for (int from = 0; from < notIndexed.size(); from += batchChunkSize) {
+         final List<String> chunk = notIndexed.subList(from, Math.min(from + batchChunkSize, notIndexed.size()));
+         final long start = System.nanoTime();
+         final Map<String, MatchResult> chunkResults = findExactlyMatchedChunk(chunk, languagePair);
+         meterRegistry.timer(QUERY_TIMER_NAME, queryTags("exact_batch", languagePair, NO_DIRECTION))
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+         results.putAll(chunkResults);
+      }
+      results.values().forEach(result -> countEmpty("exact_batch", languagePair, result));
+      return results;
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * Both translation directions are resolved by a single Solr request, see
+    * {@link #findExactlyMatched(String, LanguagePair)}.
+    */
+   @Override
+   public MatchResult findPartiallyMatched(final String phrase, final LanguagePair languagePair,
+                                           final Pageable page, final Set<EntryField> fields) {
+      return measure("fuzzy", languagePair, () -> findAllBidirectional(SolrEntryFieldNames.SOURCE_PHRASE_FIELD_NAME,
+         SolrEntryFieldNames.TARGET_PHRASE_FIELD_NAME, createPartialMatchExpression(phrase), languagePair,
+         new PageRequest(page.getPageNumber(), maxResultsPerPageForPartialMatch), fields));
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * Solr cursor marks cannot be combined with grouping, so the direction is chosen on the first page by searching
+    * the source phrase field and then, if nothing is found, the target one. The continuation token carries the chosen
+    * direction together with the cursor mark.
+    */
+   @Override
+   public MatchResult findPartiallyMatched(final String phrase, final LanguagePair languagePair,
+                                           final String cursor, final Set<EntryField> fields) {
+      return measure("fuzzy_cursor", languagePair,
+         () -> findPartiallyMatchedByCursor(phrase, languagePair, cursor, fields));
    }
 
    public Entry get(final String entryId, final LanguagePair languagePair) {
       final SolrTemplate solr = getSolr(languagePair);
-      return solr.getById(entryId, Entry.class);
+      final long start = System.nanoTime();
+      final Entry entry = RequestTimings.time(SOLR_PHASE, () -> solr.getById(entryId, Entry.class));
+      meterRegistry.timer(QUERY_TIMER_NAME, queryTags("get", languagePair, NO_DIRECTION))
+         .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      if (entry == null) {
+         meterRegistry.counter(EMPTY_RESULT_COUNTER_NAME, queryTags("get", languagePair, NO_DIRECTION)).increment();
+      }
+      return entry;
    }
 
    public Entry get(final String sourcePhrase, final String targetPhrase, final String partOfSpeech,
@@ -101,57 +242,466 @@ public class EntryRepositoryImpl implements EntryRepositoryCustom {
    }
 
    public void saveEntry(final Entry entry, final LanguagePair languagePair) {
-      final SolrTemplate solr = getSolr(languagePair);
-      solr.saveBean(entry);
-      solr.commit();
+      final SolrTemplate solr = getWriteSolr(languagePair);
+      assignId(entry);
+      solr.saveBean(entry, committer.getCommitWithin());
+      commit(solr, languagePair);
+      entryChangeListeners.forEach(listener -> listener.added(entry, languagePair));
+   }
+
+   public void saveEntries(final Collection<Entry> entries, final LanguagePair languagePair) {
+      entries.forEach(this::assignId);
+      getWriteSolr(languagePair).saveBeans(entries, committer.getCommitWithin());
+      entries.forEach(entry -> entryChangeListeners.forEach(listener -> listener.added(entry, languagePair)));
+   }
+
+   public void commit(final LanguagePair languagePair) {
+      commit(getWriteSolr(languagePair), languagePair);
    }
 
    public void updateEntry(final Entry entry, final LanguagePair languagePair) {
-      final SolrTemplate solr = getSolr(languagePair);
+      final SolrTemplate solr = getWriteSolr(languagePair);
       PartialUpdate update = new PartialUpdate(SolrEntryFieldNames.ID_FIELD_NAME, entry.getId());
       update.add(SolrEntryFieldNames.SOURCE_PHRASE_FIELD_NAME, "");
       entry.setId(null);
-      solr.saveBean(entry);
-      solr.commit();
+      assignId(entry);
+      solr.saveBean(entry, committer.getCommitWithin());
+      commit(solr, languagePair);
+      entryChangeListeners.forEach(listener -> listener.added(entry, languagePair));
    }
 
    public void deleteEntry(final String entryId, final LanguagePair languagePair) {
+      final SolrTemplate solr = getWriteSolr(languagePair);
+      solr.execute(solrClient -> solrClient.deleteById(entryId, committer.getCommitWithin()));
+      commit(solr, languagePair);
+      entryChangeListeners.forEach(listener -> listener.removed(entryId, languagePair));
+   }
+
+   public void replaceEntry(final String replacedId, final Entry entry, final LanguagePair languagePair) {
+      final SolrTemplate solr = getWriteSolr(languagePair);
+      assignId(entry);
+      final boolean idChanged = !entry.getId().equals(replacedId);
+      final UpdateRequest request = new UpdateRequest();
+      request.add(solr.convertBeanToSolrInputDocument(entry));
+      if (idChanged) {
+         request.deleteById(replacedId);
+      }
+      request.setCommitWithin(committer.getCommitWithin());
+      solr.execute(request::process);
+      commit(solr, languagePair);
+      if (idChanged) {
+         entryChangeListeners.forEach(listener -> listener.removed(replacedId, languagePair));
+      }
+      entryChangeListeners.forEach(listener -> listener.added(entry, languagePair));
+   }
+
+   public Cursor<Entry> findAll(final LanguagePair languagePair) {
+      return findAll(languagePair, new EntryFilter());
+   }
+
+   public Cursor<Entry> findAll(final LanguagePair languagePair, final EntryFilter filter) {
+      final Query query = new SimpleQuery(new SimpleStringCriteria(ALL_ENTRIES_EXPRESSION))
+         .addSort(new Sort(Sort.Direction.ASC, SolrEntryFieldNames.ID_FIELD_NAME));
+      if (filter.getDictionary() != null) {
+         query.addFilterQuery(new SimpleFilterQuery(
+            new Criteria(SolrEntryFieldNames.DICTIONARY_FIELD_NAME).is(filter.getDictionary())));
+      }
+      if (filter.getAuthor() != null) {
+         query.addFilterQuery(new SimpleFilterQuery(
+            new Criteria(SolrEntryFieldNames.AUTHOR_FIELD_NAME).is(filter.getAuthor())));
+      }
+      if (filter.getFrom() != null || filter.getTo() != null) {
+         query.addFilterQuery(new SimpleFilterQuery(
+            new Criteria(SolrEntryFieldNames.DATE_FIELD_NAME).between(filter.getFrom(), filter.getTo())));
+      }
+      query.setPageRequest(new PageRequest(0, exportBatchSize));
+      return getWriteSolr(languagePair).queryForCursor(query, Entry.class);
+   }
+
+   public long count(final LanguagePair languagePair) {
+      return getSolr(languagePair).count(new SimpleQuery(new SimpleStringCriteria(ALL_ENTRIES_EXPRESSION)));
+   }
+
+   public long migrateIds(final LanguagePair languagePair) {
+      final List<Entry> migrated = new ArrayList<>(exportBatchSize);
+      final List<String> legacyIds = new ArrayList<>(exportBatchSize);
+      long count = 0;
+      try (final Cursor<Entry> entries = findAll(languagePair)) {
+         while (entries.hasNext()) {
+            final Entry entry = entries.next();
+            final String id = createId(entry);
+            if (!id.equals(entry.getId())) {
+               legacyIds.add(entry.getId());
+               migrated.add(entry.copy().setId(id));
+            }
+            if (migrated.size() >= exportBatchSize) {
+               count += replace(migrated, legacyIds, languagePair);
+            }
+         }
+      } catch (final IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      count += replace(migrated, legacyIds, languagePair);
+      if (count > 0) {
+         commit(languagePair);
+      }
+      return count;
+   }
+
+   /**
+    * Saves the entries under their content identifiers and deletes the documents with the legacy identifiers. Legacy
+    * documents with the same content collapse into one document.
+    */
+   private long replace(final List<Entry> migrated, final List<String> legacyIds, final LanguagePair languagePair) {
+      if (migrated.isEmpty()) {
+         return 0;
+      }
+      final SolrTemplate solr = getWriteSolr(languagePair);
+      solr.saveBeans(migrated, committer.getCommitWithin());
+      solr.execute(solrClient -> solrClient.deleteById(legacyIds, committer.getCommitWithin()));
+      legacyIds.forEach(id -> entryChangeListeners.forEach(listener -> listener.removed(id, languagePair)));
+      migrated.forEach(entry -> entryChangeListeners.forEach(listener -> listener.added(entry, languagePair)));
+      final long count = migrated.size();
+      migrated.clear();
+      legacyIds.clear();
+      return count;
+   }
+
+   /**
+    * Identifiers are assigned before saving, so the saved entries can be returned and tracked by
+    * {@link EntryChangeListener}s without querying Solr. The identifier is derived from the normalized phrases, the
+    * part of speech, the dictionary and the author, so saving the same entry twice overwrites it instead of creating
+    * a duplicate, while the same translation saved by another author or to another dictionary stays a separate
+    * entry. Entries saved before identifiers were derived from content keep random ones until
+    * {@link #migrateIds(LanguagePair)} is run.
+    */
+   private void assignId(final Entry entry) {
+      if (entry.getId() == null) {
+         entry.setId(createId(entry));
+      }
+   }
+
+   private static String createId(final Entry entry) {
+      return ID_HASH.newHasher()
+         .putString(normalizeNullable(entry.getSourcePhrase()), StandardCharsets.UTF_8)
+         .putChar(ID_SEPARATOR)
+         .putString(normalizeNullable(entry.getTargetPhrase()), StandardCharsets.UTF_8)
+         .putChar(ID_SEPARATOR)
+         .putString(nullToEmpty(entry.getPartOfSpeech()), StandardCharsets.UTF_8)
+         .putChar(ID_SEPARATOR)
+         .putString(nullToEmpty(entry.getDictionary()), StandardCharsets.UTF_8)
+         .putChar(ID_SEPARATOR)
+         .putString(nullToEmpty(entry.getAuthor()), StandardCharsets.UTF_8)
+         .hash()
+         .toString();
+   }
+
+   private void commit(final SolrTemplate solr, final LanguagePair languagePair) {
+      final long start = System.nanoTime();
+      committer.commit(solr);
+      meterRegistry.timer(COMMIT_TIMER_NAME, "pair", languagePair.getAbbreviation(), "policy", committer.getPolicy())
+         .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      RequestTimings.record("commit", start);
+   }
+
+   /**
+    * Times the search and counts empty results. Searches are tagged by the phrase field the entries were matched by,
+    * so the share of searches falling back to the target phrase field is visible.
+    */
+   private MatchResult measure(final String query, final LanguagePair languagePair,
+                               final Supplier<MatchResult> search) {
+      final long start = System.nanoTime();
+      final MatchResult result = search.get();
+      meterRegistry.timer(QUERY_TIMER_NAME, queryTags(query, languagePair, toTagValue(result.getDirection())))
+         .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      countEmpty(query, languagePair, result);
+      return result;
+   }
+
+   private void countEmpty(final String query, final LanguagePair languagePair, final MatchResult result) {
+      if (!result.getEntries().hasContent()) {
+         meterRegistry.counter(EMPTY_RESULT_COUNTER_NAME,
+            queryTags(query, languagePair, toTagValue(result.getDirection()))).increment();
+      }
+   }
+
+   private static Tags queryTags(final String query, final LanguagePair languagePair, final String direction) {
+      return Tags.of("query", query, "pair", languagePair.getAbbreviation(), "direction", direction);
+   }
+
+   private static String toTagValue(final TranslationDirection direction) {
+      return direction != null ? direction.name().toLowerCase(Locale.ROOT) : NO_DIRECTION;
+   }
+
+   private static String normalizeNullable(final String phrase) {
+      return phrase != null ? ExactMatchIndex.normalize(phrase) : "";
+   }
+
+   private static String nullToEmpty(final String value) {
+      return value != null ? value : "";
+   }
+
+   private MatchResult findExactlyMatchedInSolr(final String phrase, final LanguagePair languagePair) {
+      final String expression = EXACT_MATCH_SEARCH_EXPRESSION_PATTERN.replace(PHRASE_PLACEHOLDER,
+         escapePhraseForSolr(phrase));
+      return findAllBidirectional(SolrEntryFieldNames.SOURCE_PHRASE_EXACT_FIELD_NAME,
+         SolrEntryFieldNames.TARGET_PHRASE_EXACT_FIELD_NAME, expression, languagePair,
+         new PageRequest(0, maxResultsForExactMatch), Collections.emptySet());
+   }
+
+   private Map<String, MatchResult> findExactlyMatchedChunk(final List<String> phrases,
+                                                           final LanguagePair languagePair) {
+      final StringBuilder expression = new StringBuilder("(");
+      for (final String phrase : phrases) {
+         if (expression.length() > 1) {
+            expression.append(" OR ");
+         }
+         expression.append(EXACT_MATCH_SEARCH_EXPRESSION_PATTERN.replace(PHRASE_PLACEHOLDER,
+            escapePhraseForSolr(phrase)));
+      }
+      expression.append(')');
+      final Query query = new SimpleQuery(
+         new Criteria(SolrEntryFieldNames.SOURCE_PHRASE_EXACT_FIELD_NAME).expression(expression.toString())
+            .or(new Criteria(SolrEntryFieldNames.TARGET_PHRASE_EXACT_FIELD_NAME).expression(expression.toString())));
+      query.setPageRequest(new PageRequest(0, 2 * phrases.size() * maxResultsForExactMatch));
       final SolrTemplate solr = getSolr(languagePair);
-      solr.deleteById(entryId);
-      solr.commit();
+      final Page<Entry> found = RequestTimings.time(SOLR_PHASE, () -> solr.queryForPage(query, Entry.class));
+      final Map<String, MatchResult> results = new HashMap<>();
+      if (found.getTotalElements() > found.getNumberOfElements()) {
+         phrases.forEach(phrase -> results.put(ExactMatchIndex.normalize(phrase),
+            RequestTimings.time(SOLR_FALLBACK_PHASE, () -> findExactlyMatchedInSolr(phrase, languagePair))));
+         return results;
+      }
+
+      final Map<String, Matches> direct = new HashMap<>();
+      final Map<String, Matches> reverse = new HashMap<>();
+      phrases.forEach(phrase -> {
+         direct.put(ExactMatchIndex.normalize(phrase), new Matches());
+         reverse.put(ExactMatchIndex.normalize(phrase), new Matches());
+      });
+      for (final Entry entry : found.getContent()) {
+         classify(direct, entry.getSourcePhrase(), entry);
+         classify(reverse, entry.getTargetPhrase(), entry);
+      }
+
+      final Pageable page = new PageRequest(0, maxResultsForExactMatch);
+      direct.forEach((phrase, directMatches) -> {
+         final boolean matchedDirectly = directMatches.total > 0;
+         final Matches matches = matchedDirectly ? directMatches : reverse.get(phrase);
+         results.put(phrase, new MatchResult(new PageImpl<>(matches.entries, page, matches.total),
+            matchedDirectly ? TranslationDirection.DIRECT : TranslationDirection.REVERSE));
+      });
+      return results;
+   }
+
+   /**
+    * Adds the entry to matches of its phrase. An entry can match one phrase directly and another one in reverse, so
+    * every phrase gets its own copy of the entry.
+    */
+   private void classify(final Map<String, Matches> matchesByPhrase, final String phrase, final Entry entry) {
+      if (phrase == null) {
+         return;
+      }
+      final Matches matches = matchesByPhrase.get(ExactMatchIndex.normalize(phrase));
+      if (matches == null) {
+         return;
+      }
+      matches.total++;
+      if (matches.entries.size() < maxResultsForExactMatch) {
+         matches.entries.add(entry.copy());
+      }
    }
 
-   private Page<Entry> findAllPartial(final Criteria searchCriteria, final LanguagePair languagePair,
-                                      final Pageable page) {
-      final SimpleQuery searchQuery = new SimpleQuery(searchCriteria);
-      final Pageable pageable = new PageRequest(page.getPageNumber(), maxResultsPerPageForPartialMatch);
-      searchQuery.setPageRequest(pageable);
-      return getSolr(languagePair).queryForPage(searchQuery, Entry.class);
+   private String createPartialMatchExpression(final String phrase) {
+      return "\"" + escapePhraseForSolr(phrase) + "\"" + "~" + maxDistanceBetweenWordsForPartialMatch;
    }
 
-   private Page<Entry> findAllExact(final Criteria searchCriteria, final LanguagePair languagePair) {
-      final SimpleQuery searchQuery = new SimpleQuery(searchCriteria);
-      return getSolr(languagePair).queryForPage(searchQuery, Entry.class);
+   private MatchResult findPartiallyMatchedByCursor(final String phrase, final LanguagePair languagePair,
+                                                    final String cursor, final Set<EntryField> fields) {
+      final String expression = createPartialMatchExpression(phrase);
+      if (FIRST_PAGE_CURSOR.equals(cursor)) {
+         final MatchResult direct = RequestTimings.time(SOLR_PHASE, () -> findPartiallyMatchedAfter(phrase,
+            expression, CursorMarkParams.CURSOR_MARK_START, TranslationDirection.DIRECT, languagePair, fields));
+         if (direct.getEntries().getTotalElements() > 0) {
+            return direct;
+         }
+         return RequestTimings.time(SOLR_FALLBACK_PHASE, () -> findPartiallyMatchedAfter(phrase, expression,
+            CursorMarkParams.CURSOR_MARK_START, TranslationDirection.REVERSE, languagePair, fields));
+      }
+      final String[] decoded = decodeCursor(cursor, phrase, languagePair);
+      final TranslationDirection direction = decoded[0].charAt(0) == DIRECT_CURSOR_PREFIX
+         ? TranslationDirection.DIRECT : TranslationDirection.REVERSE;
+      return RequestTimings.time(SOLR_PHASE,
+         () -> findPartiallyMatchedAfter(phrase, expression, decoded[2], direction, languagePair, fields));
    }
 
-   private String escapePhraseForSolr(final String phrase) {
-      String result = "";
+   private MatchResult findPartiallyMatchedAfter(final String phrase, final String expression,
+                                                 final String cursorMark, final TranslationDirection direction,
+                                                 final LanguagePair languagePair, final Set<EntryField> fields) {
+      final String field = direction == TranslationDirection.DIRECT
+         ? SolrEntryFieldNames.SOURCE_PHRASE_FIELD_NAME : SolrEntryFieldNames.TARGET_PHRASE_FIELD_NAME;
+      final Query query = new SimpleQuery(new Criteria(field).expression(expression))
+         .addSort(new Sort(Sort.Direction.DESC, SCORE_FIELD_NAME)
+            .and(new Sort(Sort.Direction.ASC, SolrEntryFieldNames.ID_FIELD_NAME)));
+      final Pageable page = new PageRequest(0, maxResultsPerPageForPartialMatch);
+      query.setPageRequest(page);
+      addProjection(query, fields);
+      final SolrQuery solrQuery = queryParser.constructSolrQuery(query);
+      solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+
+      final SolrTemplate solr = getSolr(languagePair);
+      final QueryResponse response = solr.execute(solrClient -> solrClient.query(solrQuery));
+      final List<Entry> entries = solr.convertQueryResponseToBeans(response, Entry.class);
+      final String nextCursorMark = response.getNextCursorMark();
+      final String nextCursor = entries.size() < page.getPageSize() || cursorMark.equals(nextCursorMark)
+         ? null : encodeCursor(direction, nextCursorMark, phrase, languagePair);
+      return new MatchResult(new PageImpl<>(entries, page, response.getResults().getNumFound()), direction,
+         nextCursor);
+   }
+
+   /**
+    * Encodes the continuation token: the direction, the scope of the search and the Solr cursor mark.
+    */
+   static String encodeCursor(final TranslationDirection direction, final String cursorMark, final String phrase,
+                              final LanguagePair languagePair) {
+      final char prefix = direction == TranslationDirection.DIRECT ? DIRECT_CURSOR_PREFIX : REVERSE_CURSOR_PREFIX;
+      final String token = String.valueOf(prefix) + CURSOR_SEPARATOR + createCursorScope(phrase, languagePair)
+         + CURSOR_SEPARATOR + cursorMark;
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+   }
+
+   /**
+    * Decodes the continuation token. A token issued for another phrase or language pair is rejected, since its cursor
+    * mark would silently continue another search.
+    *
+    * @return The direction prefix, the scope and the cursor mark.
+    */
+   static String[] decodeCursor(final String cursor, final String phrase, final LanguagePair languagePair) {
+      final String decoded;
+      try {
+         decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      } catch (final IllegalArgumentException e) {
+         throw new InvalidCursorException(cursor);
+      }
+      final String[] parts = CURSOR_SEPARATOR_PATTERN.split(decoded, CURSOR_PARTS);
+      if (parts.length != CURSOR_PARTS || parts[0].length() != 1
+            || (parts[0].charAt(0) != DIRECT_CURSOR_PREFIX && parts[0].charAt(0) != REVERSE_CURSOR_PREFIX)
+            || !parts[1].equals(createCursorScope(phrase, languagePair)) || parts[2].isEmpty()) {
+         throw new InvalidCursorException(cursor);
+      }
+      return parts;
+   }
+
+   private static String createCursorScope(final String phrase, final LanguagePair languagePair) {
+      return CURSOR_SCOPE_HASH.newHasher()
+         .putString(ExactMatchIndex.normalize(phrase), StandardCharsets.UTF_8)
+         .putChar(CURSOR_SEPARATOR)
+         .putString(languagePair.getAbbreviation(), StandardCharsets.UTF_8)
+         .hash()
+         .toString();
+   }
+
+   /**
+    * Searches the given expression in the source (direct) and the target (reverse) phrase fields within one request.
+    * The direct matches take precedence: the reverse ones are returned only if nothing is matched directly.
+    */
+   private MatchResult findAllBidirectional(final String sourceField, final String targetField,
+                                            final String expression, final LanguagePair languagePair,
+                                            final Pageable page, final Set<EntryField> fields) {
+      final Query searchQuery = createBidirectionalQuery(sourceField, targetField, expression, page);
+      addProjection(searchQuery, fields);
+      final Query directQuery = searchQuery.getGroupOptions().getGroupByQueries().get(0);
+      final Query reverseQuery = searchQuery.getGroupOptions().getGroupByQueries().get(1);
+
+      final SolrTemplate solr = getSolr(languagePair);
+      final GroupPage<Entry> groups = RequestTimings.time(SOLR_PHASE,
+         () -> solr.queryForGroupPage(searchQuery, Entry.class));
+      final Page<Entry> direct = toPage(groups.getGroupResult(directQuery), page);
+      if (direct.getTotalElements() > 0) {
+         return new MatchResult(direct, TranslationDirection.DIRECT);
+      }
+      return new MatchResult(toPage(groups.getGroupResult(reverseQuery), page), TranslationDirection.REVERSE);
+   }
+
+   /**
+    * Creates query matching the expression in either phrase field, grouped by the direct and the reverse group queries
+    * in this order.
+    */
+   Query createBidirectionalQuery(final String sourceField, final String targetField, final String expression,
+                                  final Pageable page) {
+      final Query searchQuery = new SimpleQuery(new Criteria(sourceField).expression(expression)
+         .or(new Criteria(targetField).expression(expression)));
+      searchQuery.setGroupOptions(new GroupOptions()
+         .addGroupByQuery(new SimpleQuery(new Criteria(sourceField).expression(expression)))
+         .addGroupByQuery(new SimpleQuery(new Criteria(targetField).expression(expression)))
+         .setOffset(page.getOffset())
+         .setLimit(page.getPageSize()));
+      return searchQuery;
+   }
+
+   /**
+    * Restricts the fields read by the query. The identifier and both phrases are always read, since the phrases are
+    * needed to turn around entries matched in reverse direction.
+    */
+   private void addProjection(final Query query, final Set<EntryField> fields) {
+      if (fields.isEmpty()) {
+         return;
+      }
+      final Set<EntryField> readFields = EnumSet.of(EntryField.ID, EntryField.SOURCE_PHRASE, EntryField.TARGET_PHRASE);
+      readFields.addAll(fields);
+      readFields.forEach(field -> query.addProjectionOnField(new SimpleField(field.getSolrFieldName())));
+   }
+
+   private Page<Entry> toPage(final GroupResult<Entry> groupResult, final Pageable page) {
+      if (groupResult == null || !groupResult.getGroupEntries().hasContent()) {
+         return new PageImpl<>(Collections.<Entry>emptyList(), page, 0);
+      }
+      final Page<Entry> group = groupResult.getGroupEntries().getContent().get(0).getResult();
+      return new PageImpl<>(group.getContent(), page, group.getTotalElements());
+   }
+
+   /**
+    * Entries matched by a phrase in one phrase field, together with their total number.
+    */
+   private static final class Matches {
+
+      private final List<Entry> entries = new ArrayList<>();
+
+      private long total;
+
+   }
+
+   String escapePhraseForSolr(final String phrase) {
+      final StringBuilder result = new StringBuilder(phrase.length() + 8);
       for (int i = 0; i < phrase.length(); i++) {
-         final String currentChar = Character.toString(phrase.charAt(i));
-         final boolean shouldBeEscaped = Arrays.asList(SOLR_SPECIAL_CHARS).contains(currentChar);
-         result += shouldBeEscaped ? ESCAPE_CHAR + currentChar : currentChar;
+         final char currentChar = phrase.charAt(i);
+         if (SOLR_SPECIAL_CHARS.indexOf(currentChar) >= 0) {
+            result.append(ESCAPE_CHAR);
+         }
+         result.append(currentChar);
       }
-      return result;
+      return result.toString();
    }
 
    private SolrTemplate getSolr(final LanguagePair languagePair) {
-      for (final SolrTemplate solr : solars) {
-         final String reverted =  languagePair.getTargetLanguage() + languagePair.getSourceLanguage();
-         if (solr.getSolrCore().equals(languagePair.getAbbreviation()) || solr.getSolrCore().equals(reverted)) {
-            return solr;
-         }
+      return getSolr(solrTemplates, languagePair);
+   }
+
+   /**
+    * Returns Solr core used for changes, commits and reading of all entries, its requests may take longer than
+    * searches.
+    */
+   private SolrTemplate getWriteSolr(final LanguagePair languagePair) {
+      return getSolr(solrWriteTemplates, languagePair);
+   }
+
+   private static SolrTemplate getSolr(final Map<LanguagePair, SolrTemplate> templates,
+                                       final LanguagePair languagePair) {
+      final SolrTemplate solr = templates.get(languagePair);
+      if (solr == null) {
+         throw new IllegalArgumentException("No Solr core for language pair " + languagePair);
       }
-      return null;
+      return solr;
    }
 
 }
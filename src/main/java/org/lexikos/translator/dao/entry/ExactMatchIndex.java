@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.constant.TranslationDirection;
+import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.MatchResult;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of all entries of a language pair, it maps normalized source and target phrases to entries, so
+ * exactly matched entries are found without querying Solr. The entries are the {@link CompactEntry} records shared
+ * by all indexes, see {@link IndexedEntries}.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+@ManagedResource(objectName = "org.lexikos.translator:name=ExactMatchIndex")
+public class ExactMatchIndex extends AbstractEntryIndex<ExactMatchIndex.Index> {
+
+   private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+   private static final String[] NO_IDS = new String[0];
+
+   private static final int OBJECT_HEADER_BYTES = 16;
+   private static final int REFERENCE_BYTES = 8;
+   private static final int STRING_BYTES = 40;
+   private static final int MAP_NODE_BYTES = 32;
+
+   /**
+    * Normalizes phrase the same way the exact match Solr fields do: the case and the extra whitespaces are ignored.
+    *
+    * @param phrase Phrase to normalize.
+    * @return Normalized phrase.
+    */
+   public static String normalize(final String phrase) {
+      return WHITESPACES.matcher(phrase.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+   }
+
+   /**
+    * Returns all exactly matched entries, see {@link EntryRepositoryCustom#findExactlyMatched(String, LanguagePair)}.
+    *
+    * @param phrase       The phrase to be used when searching.
+    * @param languagePair Language pair.
+    * @param maxResults   Maximum number of returned entries.
+    * @return Found entries or null if the index of the language pair has not been loaded yet.
+    */
+   public MatchResult find(final String phrase, final LanguagePair languagePair, final int maxResults) {
+      final Index index = get(languagePair);
+      if (index == null) {
+         return null;
+      }
+      final String key = normalize(phrase);
+      final String[] directIds = index.sourceIds.getOrDefault(key, NO_IDS);
+      if (directIds.length > 0) {
+         return toMatchResult(index, directIds, maxResults, TranslationDirection.DIRECT);
+      }
+      return toMatchResult(index, index.targetIds.getOrDefault(key, NO_IDS), maxResults,
+         TranslationDirection.REVERSE);
+   }
+
+   /**
+    * Returns number of indexed entries.
+    *
+    * @param languagePair Language pair.
+    * @return Number of indexed entries or -1 if the index of the language pair has not been loaded yet.
+    */
+   public long size(final LanguagePair languagePair) {
+      final Index index = get(languagePair);
+      return index != null ? index.entries.size() : -1;
+   }
+
+   @ManagedAttribute(description = "Estimated number of bytes used by all indexes")
+   public long getEstimatedBytes() {
+      long bytes = 0;
+      for (final Index index : getAll()) {
+         bytes += estimateBytes(index);
+      }
+      return bytes;
+   }
+
+   @ManagedAttribute(description = "Estimated number of bytes used per million of indexed entries")
+   public long getEstimatedBytesPerMillionEntries() {
+      long entries = 0;
+      for (final Index index : getAll()) {
+         entries += index.entries.size();
+      }
+      return entries > 0 ? getEstimatedBytes() * 1000000 / entries : 0;
+   }
+
+   @Override
+   protected Index create(final Map<String, CompactEntry> entries) {
+      return new Index(entries);
+   }
+
+   @Override
+   protected void add(final Index index, final String entryId, final CompactEntry entry,
+                      final CompactEntry previous) {
+      if (previous != null) {
+         removePostings(index, entryId, previous);
+      }
+      final String sourcePhrase = entry.getSourcePhrase();
+      if (sourcePhrase != null) {
+         index.sourceIds.merge(normalize(sourcePhrase), new String[] { entryId }, ExactMatchIndex::union);
+      }
+      final String targetPhrase = entry.getTargetPhrase();
+      if (targetPhrase != null) {
+         index.targetIds.merge(normalize(targetPhrase), new String[] { entryId }, ExactMatchIndex::union);
+      }
+   }
+
+   @Override
+   protected void remove(final Index index, final String entryId, final CompactEntry previous) {
+      removePostings(index, entryId, previous);
+   }
+
+   private void removePostings(final Index index, final String entryId, final CompactEntry entry) {
+      final String sourcePhrase = entry.getSourcePhrase();
+      if (sourcePhrase != null) {
+         index.sourceIds.computeIfPresent(normalize(sourcePhrase), (key, ids) -> without(ids, entryId));
+      }
+      final String targetPhrase = entry.getTargetPhrase();
+      if (targetPhrase != null) {
+         index.targetIds.computeIfPresent(normalize(targetPhrase), (key, ids) -> without(ids, entryId));
+      }
+   }
+
+   private MatchResult toMatchResult(final Index index, final String[] ids, final int maxResults,
+                                     final TranslationDirection direction) {
+      final List<Entry> entries = new ArrayList<>(Math.min(ids.length, maxResults));
+      for (final String id : ids) {
+         final CompactEntry entry = index.entries.get(id);
+         if (entry != null && entries.size() < maxResults) {
+            entries.add(entry.toEntry(id));
+         }
+      }
+      return new MatchResult(new PageImpl<>(entries, new PageRequest(0, maxResults), ids.length), direction);
+   }
+
+   private long estimateBytes(final Index index) {
+      long bytes = 0;
+      for (final Map.Entry<String, CompactEntry> entry : index.entries.entrySet()) {
+         bytes += MAP_NODE_BYTES + estimateBytes(entry.getKey()) + entry.getValue().getEstimatedBytes();
+      }
+      bytes += estimatePostingsBytes(index.sourceIds) + estimatePostingsBytes(index.targetIds);
+      return bytes;
+   }
+
+   private long estimatePostingsBytes(final Map<String, String[]> postings) {
+      long bytes = 0;
+      for (final Map.Entry<String, String[]> posting : postings.entrySet()) {
+         bytes += MAP_NODE_BYTES + estimateBytes(posting.getKey()) + OBJECT_HEADER_BYTES
+            + (long) REFERENCE_BYTES * posting.getValue().length;
+      }
+      return bytes;
+   }
+
+   private static long estimateBytes(final String value) {
+      return value != null ? STRING_BYTES + 2L * value.length() : 0;
+   }
+
+   private static String[] union(final String[] ids, final String[] added) {
+      final String id = added[0];
+      for (final String existing : ids) {
+         if (existing.equals(id)) {
+            return ids;
+         }
+      }
+      final String[] result = Arrays.copyOf(ids, ids.length + 1);
+      result[ids.length] = id;
+      return result;
+   }
+
+   private static String[] without(final String[] ids, final String id) {
+      final String[] result = Arrays.stream(ids).filter(existing -> !existing.equals(id)).toArray(String[]::new);
+      return result.length > 0 ? result : null;
+   }
+
+   /**
+    * Index of a single language pair. Posting lists are kept as copy-on-write arrays of entry identifiers, which is
+    * several times more compact than concurrent sets.
+    */
+   static final class Index {
+
+      private final Map<String, CompactEntry> entries;
+
+      private final Map<String, String[]> sourceIds = new ConcurrentHashMap<>();
+
+      private final Map<String, String[]> targetIds = new ConcurrentHashMap<>();
+
+      private Index(final Map<String, CompactEntry> entries) {
+         this.entries = entries;
+      }
+
+   }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.Entry;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps all entries of every language pair in memory as {@link CompactEntry} records and feeds the changes to the
+ * in-memory indexes ({@link AbstractEntryIndex}es). The records are stored once for all indexes, an index is told the
+ * previous record of a changed entry instead of keeping its own copy of it.
+ * <p>
+ * The records and the indexes of a language pair form a generation. A generation is reloaded in the background: the
+ * current one keeps serving lookups until the new one is complete, entry changes made meanwhile are applied to both
+ * of them. An entry changed during reload is not overwritten by the record read from Solr later on, since that one
+ * may predate the change.
+ * <p>
+ * Changes of a single entry are serialized: the record is replaced and the indexes are told the previous one within
+ * one atomic computation of the record map, so concurrent changes of an entry reach all indexes in the same order.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+public class IndexedEntries implements EntryChangeListener {
+
+   @Resource
+   private List<AbstractEntryIndex<?>> entryIndexes;
+
+   private final Map<LanguagePair, Generation> generations = new ConcurrentHashMap<>();
+
+   private final Map<LanguagePair, Generation> reloadingGenerations = new ConcurrentHashMap<>();
+
+   /**
+    * Returns number of entries of the language pair.
+    *
+    * @param languagePair Language pair.
+    * @return Number of entries or -1 if the entries of the language pair have not been loaded yet.
+    */
+   public long size(final LanguagePair languagePair) {
+      final Generation generation = generations.get(languagePair);
+      return generation != null ? generation.entries.size() : -1;
+   }
+
+   /**
+    * Returns the index of the language pair.
+    *
+    * @param index        Index type.
+    * @param languagePair Language pair.
+    * @param <T>          Index data type.
+    * @return Index data or null if the entries of the language pair have not been loaded yet.
+    */
+   <T> T get(final AbstractEntryIndex<T> index, final LanguagePair languagePair) {
+      final Generation generation = generations.get(languagePair);
+      return generation != null ? generation.get(index) : null;
+   }
+
+   /**
+    * Returns the indexes of all loaded language pairs.
+    *
+    * @param index Index type.
+    * @param <T>   Index data type.
+    * @return Index data.
+    */
+   <T> Collection<T> getAll(final AbstractEntryIndex<T> index) {
+      return generations.values().stream().map(generation -> generation.get(index)).collect(Collectors.toList());
+   }
+
+   @Override
+   public void added(final Entry entry, final LanguagePair languagePair) {
+      if (entry.getId() == null) {
+         return;
+      }
+      final CompactEntry record = CompactEntry.of(entry);
+      apply(languagePair, generation -> generation.entries.compute(entry.getId(), (entryId, previous) -> {
+         generation.changed(entryId);
+         return add(generation, entryId, record, previous);
+      }));
+   }
+
+   @Override
+   public void removed(final String entryId, final LanguagePair languagePair) {
+      apply(languagePair, generation -> generation.entries.compute(entryId, (id, previous) -> {
+         generation.changed(id);
+         if (previous != null) {
+            entryIndexes.forEach(index -> remove(index, generation, id, previous));
+         }
+         return null;
+      }));
+   }
+
+   @Override
+   public void reloadStarted(final LanguagePair languagePair) {
+      final Generation generation = new Generation();
+      generation.reloading = true;
+      entryIndexes.forEach(index -> generation.indexes.put(index, index.create(generation.entries)));
+      reloadingGenerations.put(languagePair, generation);
+   }
+
+   @Override
+   public void reloaded(final Entry entry, final LanguagePair languagePair) {
+      final Generation generation = reloadingGenerations.get(languagePair);
+      if (generation != null && entry.getId() != null) {
+         final CompactEntry record = CompactEntry.of(entry);
+         generation.entries.compute(entry.getId(), (entryId, previous) -> generation.changedIds.contains(entryId)
+            ? previous : add(generation, entryId, record, previous));
+      }
+   }
+
+   @Override
+   public void reloadFinished(final LanguagePair languagePair) {
+      final Generation generation = reloadingGenerations.get(languagePair);
+      if (generation != null) {
+         generation.reloading = false;
+         generations.put(languagePair, generation);
+         reloadingGenerations.remove(languagePair);
+         generation.changedIds.clear();
+      }
+   }
+
+   @Override
+   public void reloadFailed(final LanguagePair languagePair) {
+      reloadingGenerations.remove(languagePair);
+   }
+
+   /**
+    * Tells the indexes about the new record, it must be called within the computation of the record.
+    */
+   private CompactEntry add(final Generation generation, final String entryId, final CompactEntry record,
+                            final CompactEntry previous) {
+      entryIndexes.forEach(index -> add(index, generation, entryId, record, previous));
+      return record;
+   }
+
+   private static <T> void add(final AbstractEntryIndex<T> index, final Generation generation, final String entryId,
+                               final CompactEntry entry, final CompactEntry previous) {
+      index.add(generation.get(index), entryId, entry, previous);
+   }
+
+   private static <T> void remove(final AbstractEntryIndex<T> index, final Generation generation,
+                                  final String entryId, final CompactEntry previous) {
+      index.remove(generation.get(index), entryId, previous);
+   }
+
+   /**
+    * Applies a change to both current and reloading generations. The reloading generation is looked up first, so a
+    * change racing with the end of reload is never lost.
+    */
+   private void apply(final LanguagePair languagePair, final Consumer<Generation> change) {
+      final Generation reloading = reloadingGenerations.get(languagePair);
+      final Generation current = generations.get(languagePair);
+      if (reloading != null) {
+         change.accept(reloading);
+      }
+      if (current != null && current != reloading) {
+         change.accept(current);
+      }
+   }
+
+   /**
+    * Entry records of a language pair together with the indexes built over them. The indexes are created together
+    * with the generation and never replaced.
+    */
+   private static final class Generation {
+
+      private final Map<String, CompactEntry> entries = new ConcurrentHashMap<>();
+
+      private final Map<AbstractEntryIndex<?>, Object> indexes = new IdentityHashMap<>();
+
+      /**
+       * Identifiers of entries changed while the generation is being reloaded.
+       */
+      private final Set<String> changedIds = ConcurrentHashMap.newKeySet();
+
+      private volatile boolean reloading;
+
+      private void changed(final String entryId) {
+         if (reloading) {
+            changedIds.add(entryId);
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private <T> T get(final AbstractEntryIndex<T> index) {
+         return (T) indexes.get(index);
+      }
+
+   }
+
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory symmetric delete spelling index of headwords (source and target phrases) of all entries of a language
+ * pair, it corrects misspelled phrases without querying Solr. Every headword is indexed under all variants of its
+ * prefix with up to {@code search.spelling.max_distance} characters deleted; a misspelled phrase is corrected by
+ * looking up the delete variants of its own prefix and verifying the found headwords by edit distance. Only the first
+ * {@code search.spelling.prefix_length} characters are used, which bounds the number of variants of long phrases.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+@ManagedResource(objectName = "org.lexikos.translator:name=SpellingIndex")
+public class SpellingIndex extends AbstractEntryIndex<SpellingIndex.Index> {
+
+   @Value("${search.spelling.max_distance}")
+   private int maxDistance;
+
+   @Value("${search.spelling.prefix_length}")
+   private int prefixLength;
+
+   private final AtomicLong corrections = new AtomicLong();
+
+   private final AtomicLong verifiedCandidates = new AtomicLong();
+
+   /**
+    * Returns headwords within {@code search.spelling.max_distance} edits (insertions, deletions, substitutions and
+    * transpositions of adjacent characters) of the phrase, the closest and then the most frequent ones first.
+    *
+    * @param phrase       Possibly misspelled phrase.
+    * @param languagePair Language pair.
+    * @param maxResults   Maximum number of returned headwords.
+    * @return Found headwords or empty list if the index of the language pair has not been loaded yet.
+    */
+   public List<String> correct(final String phrase, final LanguagePair languagePair, final int maxResults) {
+      final Index index = get(languagePair);
+      final String key = ExactMatchIndex.normalize(phrase);
+      if (index == null || key.isEmpty() || maxResults <= 0) {
+         return Collections.emptyList();
+      }
+      final Set<String> candidates = new HashSet<>();
+      for (final String variant : deletes(key)) {
+         final String[] keys = index.deletes.get(variant);
+         if (keys != null) {
+            candidates.addAll(Arrays.asList(keys));
+         }
+      }
+      final List<Correction> found = new ArrayList<>();
+      for (final String candidate : candidates) {
+         if (Math.abs(candidate.length() - key.length()) > maxDistance) {
+            continue;
+         }
+         final Headword headword = index.headwords.get(candidate);
+         final int distance = distance(key, candidate, maxDistance);
+         if (headword != null && distance <= maxDistance) {
+            found.add(new Correction(headword, distance));
+         }
+      }
+      corrections.incrementAndGet();
+      verifiedCandidates.addAndGet(candidates.size());
+      return found.stream()
+         .sorted(Comparator.comparingInt((Correction correction) -> correction.distance)
+            .thenComparing(correction -> correction.headword.entries, Comparator.reverseOrder())
+            .thenComparing(correction -> correction.headword.phrase))
+         .limit(maxResults)
+         .map(correction -> correction.headword.phrase)
+         .collect(Collectors.toList());
+   }
+
+   @ManagedAttribute(description = "Number of indexed headwords")
+   public long getHeadwords() {
+      long headwords = 0;
+      for (final Index index : getAll()) {
+         headwords += index.headwords.size();
+      }
+      return headwords;
+   }
+
+   @ManagedAttribute(description = "Number of indexed delete variants")
+   public long getDeleteVariants() {
+      long variants = 0;
+      for (final Index index : getAll()) {
+         variants += index.deletes.size();
+      }
+      return variants;
+   }
+
+   @ManagedAttribute(description = "Average number of headwords verified by edit distance per correction")
+   public double getAverageVerifiedCandidates() {
+      final long count = corrections.get();
+      return count > 0 ? (double) verifiedCandidates.get() / count : 0;
+   }
+
+   @Override
+   protected Index create(final Map<String, CompactEntry> entries) {
+      return new Index();
+   }
+
+   /**
+    * The headwords of the replaced entry are counted out first.
+    */
+   @Override
+   protected void add(final Index index, final String entryId, final CompactEntry entry,
+                      final CompactEntry previous) {
+      if (previous != null) {
+         change(index, previous, -1);
+      }
+      change(index, entry, 1);
+   }
+
+   @Override
+   protected void remove(final Index index, final String entryId, final CompactEntry previous) {
+      change(index, previous, -1);
+   }
+
+   private void change(final Index index, final CompactEntry entry, final int delta) {
+      for (final String phrase : new String[] { entry.getSourcePhrase(), entry.getTargetPhrase() }) {
+         if (phrase != null) {
+            change(index, phrase, delta);
+         }
+      }
+   }
+
+   /**
+    * Changes number of entries of the headword. The delete variants are added and removed within the atomic update
+    * of the headword, so they never disagree with the headwords.
+    */
+   private void change(final Index index, final String phrase, final int delta) {
+      final String key = ExactMatchIndex.normalize(phrase);
+      if (key.isEmpty()) {
+         return;
+      }
+      index.headwords.compute(key, (k, headword) -> {
+         if (headword == null) {
+            if (delta <= 0) {
+               return null;
+            }
+            deletes(k).forEach(variant -> index.deletes.merge(variant, new String[] { k }, SpellingIndex::union));
+            return new Headword(phrase.trim(), delta);
+         }
+         final int entries = headword.entries + delta;
+         if (entries > 0) {
+            return new Headword(headword.phrase, entries);
+         }
+         deletes(k).forEach(variant -> index.deletes.computeIfPresent(variant, (v, keys) -> without(keys, k)));
+         return null;
+      });
+   }
+
+   /**
+    * Generates the prefix of the key together with all its variants with up to {@code search.spelling.max_distance}
+    * characters deleted.
+    */
+   private Set<String> deletes(final String key) {
+      final Set<String> variants = new HashSet<>();
+      final String prefix = key.length() > prefixLength ? key.substring(0, prefixLength) : key;
+      variants.add(prefix);
+      List<String> previous = Collections.singletonList(prefix);
+      for (int distance = 1; distance <= maxDistance; distance++) {
+         final List<String> next = new ArrayList<>();
+         for (final String variant : previous) {
+            for (int i = 0; i < variant.length(); i++) {
+               final String deleted = variant.substring(0, i) + variant.substring(i + 1);
+               if (variants.add(deleted)) {
+                  next.add(deleted);
+               }
+            }
+         }
+         previous = next;
+      }
+      return variants;
+   }
+
+   /**
+    * Computes optimal string alignment distance, i.e. Levenshtein distance counting transposition of adjacent
+    * characters as a single edit. The computation stops as soon as the distance exceeds the maximum.
+    *
+    * @return Distance or {@code max + 1} if the distance exceeds the maximum.
+    */
+   static int distance(final String first, final String second, final int max) {
+      int[] previousPrevious = new int[second.length() + 1];
+      int[] previous = new int[second.length() + 1];
+      int[] current = new int[second.length() + 1];
+      for (int j = 0; j <= second.length(); j++) {
+         previous[j] = j;
+      }
+      for (int i = 1; i <= first.length(); i++) {
+         current[0] = i;
+         int rowMinimum = i;
+         for (int j = 1; j <= second.length(); j++) {
+            final int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+            int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+            if (i > 1 && j > 1 && first.charAt(i - 1) == second.charAt(j - 2)
+                  && first.charAt(i - 2) == second.charAt(j - 1)) {
+               value = Math.min(value, previousPrevious[j - 2] + 1);
+            }
+            current[j] = value;
+            rowMinimum = Math.min(rowMinimum, value);
+         }
+         if (rowMinimum > max) {
+            return max + 1;
+         }
+         final int[] recycled = previousPrevious;
+         previousPrevious = previous;
+         previous = current;
+         current = recycled;
+      }
+      return Math.min(previous[second.length()], max + 1);
+   }
+
+   private static String[] union(final String[] keys, final String[] added) {
+      final String key = added[0];
+      for (final String existing : keys) {
+         if (existing.equals(key)) {
+            return keys;
+         }
+      }
+      final String[] result = Arrays.copyOf(keys, keys.length + 1);
+      result[keys.length] = key;
+      return result;
+   }
+
+   private static String[] without(final String[] keys, final String key) {
+      final String[] result = Arrays.stream(keys).filter(existing -> !existing.equals(key)).toArray(String[]::new);
+      return result.length > 0 ? result : null;
+   }
+
+   /**
+    * Index of a single language pair. Delete variants map to copy-on-write arrays of headword keys.
+    */
+   static final class Index {
+
+      private final Map<String, Headword> headwords = new ConcurrentHashMap<>();
+
+      private final Map<String, String[]> deletes = new ConcurrentHashMap<>();
+
+   }
+
+   /**
+    * Headword together with the number of entries it belongs to.
+    */
+   private static final class Headword {
+
+      private final String phrase;
+
+      private final int entries;
+
+      private Headword(final String phrase, final int entries) {
+         this.phrase = phrase;
+         this.entries = entries;
+      }
+
+   }
+
+   private static final class Correction {
+
+      private final Headword headword;
+
+      private final int distance;
+
+      private Correction(final Headword headword, final int distance) {
+         this.headword = headword;
+         this.distance = distance;
+      }
+
+   }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory sorted dictionary of headwords (source and target phrases) of all entries of a language pair, it
+ * completes a prefix to the most popular headwords. Popularity of a headword is the number of entries it belongs to
+ * plus the number of times it has been found by exact search since the index was loaded.
+ * <p>
+ * Short prefixes match too many headwords to be scanned per request, so the most popular headwords of prefixes up to
+ * {@code search.suggest.cached_prefix_length} characters are kept in lists computed on first use. A headword gaining
+ * popularity is offered to the lists of its prefixes; a headword losing popularity drops the lists it is part of, so
+ * they are computed again. Longer prefixes are completed by scanning all headwords starting with them.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+@ManagedResource(objectName = "org.lexikos.translator:name=SuggestionIndex")
+public class SuggestionIndex extends AbstractEntryIndex<SuggestionIndex.Index> {
+
+   private static final Comparator<Headword> BY_POPULARITY = Comparator.comparingLong(Headword::getWeight)
+      .thenComparing(Headword::getPhrase, Comparator.reverseOrder());
+
+   @Value("${search.suggest.max_results}")
+   private int maxResults;
+
+   @Value("${search.suggest.cached_prefix_length}")
+   private int cachedPrefixLength;
+
+   private final AtomicLong scannedHeadwords = new AtomicLong();
+
+   private final AtomicLong suggestions = new AtomicLong();
+
+   /**
+    * Returns headwords starting with the prefix ordered by popularity.
+    *
+    * @param prefix       Prefix of headwords.
+    * @param languagePair Language pair.
+    * @param limit        Maximum number of returned headwords, at most {@code search.suggest.max_results}.
+    * @return Found headwords or empty list if the index of the language pair has not been loaded yet.
+    */
+   public List<String> suggest(final String prefix, final LanguagePair languagePair, final int limit) {
+      final Index index = get(languagePair);
+      final String key = ExactMatchIndex.normalize(prefix);
+      if (index == null || key.isEmpty() || limit <= 0) {
+         return Collections.emptyList();
+      }
+      final String[] keys = key.length() <= cachedPrefixLength
+         ? index.topKeys.computeIfAbsent(key, k -> scan(index, k))
+         : scan(index, key);
+      suggestions.incrementAndGet();
+      final List<Headword> top = new ArrayList<>(keys.length);
+      for (final String headwordKey : keys) {
+         final Headword headword = index.headwords.get(headwordKey);
+         if (headword != null) {
+            top.add(headword);
+         }
+      }
+      top.sort(BY_POPULARITY.reversed());
+      return top.stream().limit(limit).map(Headword::getPhrase).collect(Collectors.toList());
+   }
+
+   /**
+    * Increases popularity of the headword, it should be called when the headword is looked up.
+    *
+    * @param phrase       Headword.
+    * @param languagePair Language pair.
+    */
+   public void hit(final String phrase, final LanguagePair languagePair) {
+      final Index index = get(languagePair);
+      if (index != null) {
+         final Headword headword = index.headwords.get(ExactMatchIndex.normalize(phrase));
+         if (headword != null) {
+            headword.hits.incrementAndGet();
+            promote(index, headword.key);
+         }
+      }
+   }
+
+   @ManagedAttribute(description = "Number of indexed headwords")
+   public long getHeadwords() {
+      long headwords = 0;
+      for (final Index index : getAll()) {
+         headwords += index.headwords.size();
+      }
+      return headwords;
+   }
+
+   @ManagedAttribute(description = "Number of prefixes with cached most popular headwords")
+   public long getCachedPrefixes() {
+      long prefixes = 0;
+      for (final Index index : getAll()) {
+         prefixes += index.topKeys.size();
+      }
+      return prefixes;
+   }
+
+   @ManagedAttribute(description = "Average number of headwords scanned per suggestion")
+   public double getAverageScannedHeadwords() {
+      final long count = suggestions.get();
+      return count > 0 ? (double) scannedHeadwords.get() / count : 0;
+   }
+
+   @Override
+   protected Index create(final Map<String, CompactEntry> entries) {
+      return new Index();
+   }
+
+   /**
+    * The headwords of the replaced entry are counted out first.
+    */
+   @Override
+   protected void add(final Index index, final String entryId, final CompactEntry entry,
+                      final CompactEntry previous) {
+      if (previous != null) {
+         change(index, previous, -1);
+      }
+      change(index, entry, 1);
+   }
+
+   @Override
+   protected void remove(final Index index, final String entryId, final CompactEntry previous) {
+      change(index, previous, -1);
+   }
+
+   private void change(final Index index, final CompactEntry entry, final int delta) {
+      for (final String phrase : new String[] { entry.getSourcePhrase(), entry.getTargetPhrase() }) {
+         if (phrase != null) {
+            change(index, phrase.trim(), delta);
+         }
+      }
+   }
+
+   private void change(final Index index, final String phrase, final int delta) {
+      final String key = ExactMatchIndex.normalize(phrase);
+      if (key.isEmpty()) {
+         return;
+      }
+      index.headwords.compute(key, (k, headword) -> {
+         if (headword == null) {
+            return delta > 0 ? new Headword(k, phrase, delta, new AtomicLong()) : null;
+         }
+         final int entries = headword.entries + delta;
+         return entries > 0 ? new Headword(k, headword.phrase, entries, headword.hits) : null;
+      });
+      if (delta > 0) {
+         promote(index, key);
+      } else {
+         demote(index, key);
+      }
+   }
+
+   /**
+    * Finds the most popular headwords starting with the prefix by scanning all of them.
+    */
+   private String[] scan(final Index index, final String prefix) {
+      final PriorityQueue<Headword> top = new PriorityQueue<>(maxResults + 1, BY_POPULARITY);
+      long scanned = 0;
+      for (final Headword headword : index.headwords.tailMap(prefix).values()) {
+         if (!headword.key.startsWith(prefix)) {
+            break;
+         }
+         scanned++;
+         top.offer(headword);
+         if (top.size() > maxResults) {
+            top.poll();
+         }
+      }
+      scannedHeadwords.addAndGet(scanned);
+      return top.stream().map(headword -> headword.key).toArray(String[]::new);
+   }
+
+   /**
+    * Offers the headword which has gained popularity to the cached lists of its prefixes.
+    */
+   private void promote(final Index index, final String key) {
+      final Headword headword = index.headwords.get(key);
+      if (headword == null) {
+         return;
+      }
+      for (int length = 1; length <= Math.min(key.length(), cachedPrefixLength); length++) {
+         index.topKeys.computeIfPresent(key.substring(0, length), (prefix, keys) -> offer(index, keys, headword));
+      }
+   }
+
+   /**
+    * Drops the cached lists of prefixes of the headword which has lost popularity, if it is part of them: a less
+    * popular headword might have to take its place.
+    */
+   private void demote(final Index index, final String key) {
+      for (int length = 1; length <= Math.min(key.length(), cachedPrefixLength); length++) {
+         index.topKeys.computeIfPresent(key.substring(0, length),
+            (prefix, keys) -> Arrays.asList(keys).contains(key) ? null : keys);
+      }
+   }
+
+   private String[] offer(final Index index, final String[] keys, final Headword headword) {
+      if (Arrays.asList(keys).contains(headword.key)) {
+         return keys;
+      }
+      if (keys.length < maxResults) {
+         final String[] result = Arrays.copyOf(keys, keys.length + 1);
+         result[keys.length] = headword.key;
+         return result;
+      }
+      int least = -1;
+      long leastWeight = Long.MAX_VALUE;
+      for (int i = 0; i < keys.length; i++) {
+         final Headword other = index.headwords.get(keys[i]);
+         final long weight = other != null ? other.getWeight() : -1;
+         if (weight < leastWeight) {
+            least = i;
+            leastWeight = weight;
+         }
+      }
+      if (least < 0 || headword.getWeight() <= leastWeight) {
+         return keys;
+      }
+      final String[] result = keys.clone();
+      result[least] = headword.key;
+      return result;
+   }
+
+   /**
+    * Index of a single language pair.
+    */
+   static final class Index {
+
+      private final ConcurrentNavigableMap<String, Headword> headwords = new ConcurrentSkipListMap<>();
+
+      /**
+       * Keys of the most popular headwords by prefix, for prefixes up to
+       * {@code search.suggest.cached_prefix_length} characters.
+       */
+      private final Map<String, String[]> topKeys = new ConcurrentHashMap<>();
+
+   }
+
+   /**
+    * Headword together with its popularity. Headwords are immutable except of the hit counter, since the map
+    * computation replacing them can be retried.
+    */
+   private static final class Headword {
+
+      private final String key;
+
+      private final String phrase;
+
+      private final int entries;
+
+      private final AtomicLong hits;
+
+      private Headword(final String key, final String phrase, final int entries, final AtomicLong hits) {
+         this.key = key;
+         this.phrase = phrase;
+         this.entries = entries;
+         this.hits = hits;
+      }
+
+      private long getWeight() {
+         return entries + hits.get();
+      }
+
+      private String getPhrase() {
+         return phrase;
+      }
+
+   }
+
+}
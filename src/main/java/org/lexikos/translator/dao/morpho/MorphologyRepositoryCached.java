@@ -0,0 +1,213 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.morpho;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This morphology repository caches parts of speech found by {@link MorphologyRepositoryRest}. Unknown phrases are
+ * cached too, but for a shorter time. The cache can be saved to a local file on shutdown and loaded back on startup.
+ *
+ * @author Maksim Filkov
+ */
+@Primary
+@Repository
+@ManagedResource(objectName = "org.lexikos.translator:name=MorphologyCache")
+public class MorphologyRepositoryCached implements MorphologyRepository {
+
+   static Logger log = Logger.getLogger(MorphologyRepositoryCached.class.getName());
+
+   private static final String FIELD_SEPARATOR = "\t";
+   private static final String PARTS_OF_SPEECH_SEPARATOR = ",";
+
+   @Value("${morpho.cache.max_size}")
+   private long maxSize;
+
+   @Value("${morpho.cache.ttl_hours}")
+   private long ttlHours;
+
+   @Value("${morpho.cache.negative_ttl_minutes}")
+   private long negativeTtlMinutes;
+
+   @Value("${morpho.cache.file}")
+   private String cacheFile;
+
+   @Resource
+   private MorphologyRepositoryRest morphologyRepositoryRest;
+
+   private Cache<Key, PartsOfSpeech> cache;
+
+   @PostConstruct
+   public void init() {
+      cache = CacheBuilder.newBuilder()
+         .maximumSize(maxSize)
+         .expireAfterWrite(ttlHours, TimeUnit.HOURS)
+         .recordStats()
+         .build();
+      if (!cacheFile.isEmpty()) {
+         load(Paths.get(cacheFile));
+      }
+   }
+
+   @Override
+   public List<String> findPartsOfSpeech(final String phrase, final String language) {
+      final Key key = new Key(language, phrase);
+      try {
+         PartsOfSpeech partsOfSpeech = cache.get(key, () -> find(key));
+         if (partsOfSpeech.isExpired()) {
+            cache.invalidate(key);
+            partsOfSpeech = cache.get(key, () -> find(key));
+         }
+         return partsOfSpeech.values;
+      } catch (final ExecutionException | UncheckedExecutionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new IllegalStateException(e.getCause());
+      }
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      if (!cacheFile.isEmpty()) {
+         save(Paths.get(cacheFile));
+      }
+   }
+
+   @ManagedAttribute(description = "Number of cached phrases")
+   public long getSize() {
+      return cache.size();
+   }
+
+   @ManagedAttribute(description = "Number of lookups served from cache")
+   public long getHitCount() {
+      return cache.stats().hitCount();
+   }
+
+   @ManagedAttribute(description = "Number of lookups sent to morphology service")
+   public long getMissCount() {
+      return cache.stats().missCount();
+   }
+
+   private PartsOfSpeech find(final Key key) {
+      final List<String> values = morphologyRepositoryRest.findPartsOfSpeech(key.phrase, key.language);
+      if (values == null || values.isEmpty()) {
+         return new PartsOfSpeech(Collections.<String>emptyList(),
+            System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(negativeTtlMinutes));
+      }
+      return new PartsOfSpeech(Collections.unmodifiableList(values),
+         System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHours));
+   }
+
+   /**
+    * Loads cached parts of speech, every line of the file holds language, phrase, parts of speech and expiration time.
+    */
+   private void load(final Path path) {
+      if (!Files.exists(path)) {
+         return;
+      }
+      try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            final String[] fields = line.split(FIELD_SEPARATOR, -1);
+            final PartsOfSpeech partsOfSpeech = new PartsOfSpeech(fields[2].isEmpty()
+               ? Collections.<String>emptyList()
+               : Collections.unmodifiableList(Arrays.asList(fields[2].split(PARTS_OF_SPEECH_SEPARATOR))),
+               Long.parseLong(fields[3]));
+            if (!partsOfSpeech.isExpired()) {
+               cache.put(new Key(fields[0], fields[1]), partsOfSpeech);
+            }
+         }
+         log.info("Loaded " + cache.size() + " cached phrases from " + path);
+      } catch (final IOException | RuntimeException e) {
+         log.warn("Unable to load cached phrases from " + path, e);
+      }
+   }
+
+   private void save(final Path path) {
+      try {
+         final Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), "morpho", ".tmp");
+         try (final BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (final Map.Entry<Key, PartsOfSpeech> entry : cache.asMap().entrySet()) {
+               final Key key = entry.getKey();
+               if (entry.getValue().isExpired() || key.phrase.contains(FIELD_SEPARATOR) || key.phrase.contains("\n")) {
+                  continue;
+               }
+               writer.write(key.language + FIELD_SEPARATOR + key.phrase + FIELD_SEPARATOR
+                  + String.join(PARTS_OF_SPEECH_SEPARATOR, entry.getValue().values) + FIELD_SEPARATOR
+                  + entry.getValue().expiresAt);
+               writer.newLine();
+            }
+         }
+         Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final IOException e) {
+         log.warn("Unable to save cached phrases to " + path, e);
+      }
+   }
+
+   @AllArgsConstructor
+   @EqualsAndHashCode
+   private static final class Key {
+
+      private final String language;
+
+      private final String phrase;
+
+   }
+
+   @AllArgsConstructor
+   private static final class PartsOfSpeech {
+
+      private final List<String> values;
+
+      private final long expiresAt;
+
+      private boolean isExpired() {
+         return System.currentTimeMillis() > expiresAt;
+      }
+
+   }
+
+}
@@ -16,6 +16,8 @@
 
 package org.lexikos.translator.dao.morpho;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.lexikos.translator.config.RequestTimings;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.client.RestTemplate;
@@ -45,10 +47,18 @@ public class MorphologyRepositoryRest implements MorphologyRepository {
    @Resource
    private RestTemplate phpMorphy;
 
+   @Resource
+   private MeterRegistry meterRegistry;
+
    @Override
    public List<String> findPartsOfSpeech(final String phrase, final String language) {
       final String url = MessageFormat.format(morphoUrl, morphoHost, morphoPort, phrase, toPhpMorphyLanguage(language));
-      return phpMorphy.getForObject(url, ArrayList.class);
+      final List<String> partsOfSpeech = meterRegistry.timer("morphology.requests", "language", language)
+         .record(() -> RequestTimings.time("morpho", () -> phpMorphy.getForObject(url, ArrayList.class)));
+      if (partsOfSpeech == null || partsOfSpeech.isEmpty()) {
+         meterRegistry.counter("morphology.empty_results", "language", language).increment();
+      }
+      return partsOfSpeech;
    }
 
    private String toPhpMorphyLanguage(final String language) {
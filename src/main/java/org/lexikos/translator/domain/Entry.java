@@ -26,10 +26,12 @@ import org.apache.solr.client.solrj.beans.Field;
 import org.hibernate.validator.constraints.NotEmpty;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.solr.core.mapping.SolrDocument;
+import org.lexikos.translator.constant.EntryField;
 import org.lexikos.translator.constant.SolrEntryFieldNames;
 
 import javax.validation.constraints.Size;
 import java.util.Date;
+import java.util.Set;
 
 /**
  * This domain class describes a typical dictionary entry.
@@ -86,4 +88,32 @@ public class Entry {
    @Field(SolrEntryFieldNames.PRONUNCIATION_FIELD_NAME)
    private String pronunciation;
 
+   /**
+    * Returns a shallow copy of the entry.
+    *
+    * @return Copy of the entry.
+    */
+   public Entry copy() {
+      return new Entry(id, sourcePhrase, partOfSpeech, targetPhrase, dictionary, author, commentary, imageName, date,
+         pronunciation);
+   }
+
+   /**
+    * Returns a shallow copy of the entry containing only the given fields.
+    *
+    * @param fields Fields to keep, all fields are kept if empty.
+    * @return Copy of the entry.
+    */
+   public Entry copy(final Set<EntryField> fields) {
+      final Entry copy = copy();
+      if (!fields.isEmpty()) {
+         for (final EntryField field : EntryField.values()) {
+            if (!fields.contains(field)) {
+               field.clear(copy);
+            }
+         }
+      }
+      return copy;
+   }
+
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Describes conditions all selected entries should meet, conditions which are not set are ignored.
+ *
+ * @author Maksim Filkov
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryFilter {
+
+   private String dictionary;
+
+   private String author;
+
+   /**
+    * Inclusive lower bound of the entry date.
+    */
+   private Date from;
+
+   /**
+    * Inclusive upper bound of the entry date.
+    */
+   private Date to;
+
+}
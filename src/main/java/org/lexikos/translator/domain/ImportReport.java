@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes results of dictionary import.
+ *
+ * @author Maksim Filkov
+ */
+@Data
+public class ImportReport {
+
+   private long imported;
+
+   private long rejected;
+
+   private long elapsedMillis;
+
+   private double entriesPerSecond;
+
+   /**
+    * Rejected lines, only the first ones are reported to keep the report small.
+    */
+   private List<Reject> rejects = new ArrayList<>();
+
+   /**
+    * Describes a single rejected line of dictionary file.
+    */
+   @Data
+   @AllArgsConstructor
+   public static class Reject {
+
+      private long line;
+
+      private List<String> errors;
+
+   }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.lexikos.translator.constant.TranslationDirection;
+import org.springframework.data.domain.Page;
+
+/**
+ * Describes found entries together with the translation direction (phrase field) they were matched by.
+ *
+ * @author Maksim Filkov
+ */
+@Data
+@AllArgsConstructor
+public class MatchResult {
+
+   private Page<Entry> entries;
+
+   private TranslationDirection direction;
+
+   /**
+    * Continuation token of cursor based paging, null if there are no more entries or the entries are paged by offset.
+    */
+   private String nextCursor;
+
+   public MatchResult(final Page<Entry> entries, final TranslationDirection direction) {
+      this(entries, direction, null);
+   }
+
+}
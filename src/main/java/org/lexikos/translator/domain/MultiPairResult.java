@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.domain;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes exactly matched entries found in several language pairs at once.
+ *
+ * @author Maksim Filkov
+ */
+@Data
+public class MultiPairResult {
+
+   /**
+    * Found entries by language pair abbreviation, in the requested order of language pairs.
+    */
+   private Map<String, List<Entry>> entries = new LinkedHashMap<>();
+
+   /**
+    * Language pairs which have not answered before the deadline.
+    */
+   private List<String> timedOut = new ArrayList<>();
+
+   /**
+    * Language pairs which have failed to answer.
+    */
+   private List<String> failed = new ArrayList<>();
+
+}
@@ -16,6 +16,7 @@
 
 package org.lexikos.translator.domain;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import org.springframework.data.domain.Page;
 
@@ -47,6 +48,12 @@ public class PageableResult {
 
    private boolean hasContent;
 
+   /**
+    * Continuation token to request the next page with, present only when entries are paged by cursor.
+    */
+   @JsonInclude(JsonInclude.Include.NON_NULL)
+   private String nextCursor;
+
    public PageableResult(final Page<Entry> pages) {
       entries = pages.getContent();
       totalPages = pages.getTotalPages();
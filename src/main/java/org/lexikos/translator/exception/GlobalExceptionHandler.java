@@ -16,6 +16,7 @@
 
 package org.lexikos.translator.exception;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.FieldError;
@@ -24,6 +25,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import javax.validation.ConstraintViolationException;
 import java.util.Collections;
@@ -59,6 +61,35 @@ public class GlobalExceptionHandler {
                 .collect(Collectors.toList()));
     }
 
+    @ResponseBody
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map handle(final MethodArgumentTypeMismatchException exception) {
+        final Throwable cause = exception.getMostSpecificCause();
+        return error(Collections.singletonList(exception.getName() + ": " + cause.getMessage()));
+    }
+
+    @ResponseBody
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map handle(final UnknownLanguagePairException exception) {
+        return error(Collections.singletonList(exception.getMessage()));
+    }
+
+    @ResponseBody
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map handle(final InvalidCursorException exception) {
+        return error(Collections.singletonList(exception.getMessage()));
+    }
+
+    @ResponseBody
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map handle(final TaskRejectedException exception) {
+        return error(Collections.singletonList("Too many concurrent searches, try again later"));
+    }
+
     private Map error(final Object message) {
         return Collections.singletonMap("errors", message);
     }
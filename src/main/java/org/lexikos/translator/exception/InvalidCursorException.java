@@ -0,0 +1,31 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.exception;
+
+/**
+ * Thrown when a continuation token of paged search is malformed or has been issued for another search, it is answered
+ * with 400 by {@link GlobalExceptionHandler}.
+ *
+ * @author Maksim Filkov
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+   public InvalidCursorException(final String cursor) {
+      super("Invalid cursor: " + cursor);
+   }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.service;
+
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.EntryFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Provides APIs to export whole dictionaries.
+ *
+ * @author Maksim Filkov
+ */
+public interface EntryExportService {
+
+   /**
+    * Writes all entries meeting the filter to the given stream as newline delimited JSON. The entries are read from
+    * Solr page by page and written as they are read, so the dictionary is never held in memory entirely.
+    *
+    * @param languagePair Language pair.
+    * @param filter       Conditions exported entries should meet.
+    * @param output       Stream to write entries to, one entry per line.
+    * @return Number of exported entries.
+    * @throws IOException If the entries cannot be written.
+    */
+   long exportEntries(final LanguagePair languagePair, final EntryFilter filter, final OutputStream output)
+         throws IOException;
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.log4j.Logger;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.dao.entry.EntryRepositoryImpl;
+import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.EntryFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.solr.core.query.result.Cursor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This service exports dictionaries by iterating Solr cursor. The output is flushed once per
+ * {@code search.export.batch_size} written entries rather than after every entry, so a slow client slows down reading
+ * from Solr instead of making the entries pile up in memory.
+ *
+ * @author Maksim Filkov
+ */
+@Service
+public class EntryExportServiceImpl implements EntryExportService {
+
+   static Logger log = Logger.getLogger(EntryExportServiceImpl.class.getName());
+
+   private static final char LINE_SEPARATOR = '\n';
+
+   @Value("${search.export.batch_size}")
+   private int batchSize;
+
+   @Resource
+   private EntryRepositoryImpl entryRepository;
+
+   @Resource
+   private ObjectMapper objectMapper;
+
+   private ObjectWriter entryWriter;
+
+   @PostConstruct
+   public void init() {
+      entryWriter = objectMapper.writerFor(Entry.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+   }
+
+   @Override
+   public long exportEntries(final LanguagePair languagePair, final EntryFilter filter, final OutputStream output)
+         throws IOException {
+      final long start = System.currentTimeMillis();
+      long exported = 0;
+      try (final Cursor<Entry> entries = entryRepository.findAll(languagePair, filter);
+           final JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+         generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+         generator.setRootValueSeparator(null);
+         while (entries.hasNext()) {
+            entryWriter.writeValue(generator, entries.next());
+            generator.writeRaw(LINE_SEPARATOR);
+            if (++exported % batchSize == 0) {
+               generator.flush();
+            }
+         }
+      }
+      log.info("Exported " + exported + " entries of " + languagePair + " in "
+            + (System.currentTimeMillis() - start) + " ms");
+      return exported;
+   }
+
+}
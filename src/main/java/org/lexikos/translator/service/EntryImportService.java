@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.service;
+
+import org.lexikos.translator.constant.ImportFormat;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.ImportReport;
+
+import java.io.InputStream;
+
+/**
+ * Provides APIs to import whole dictionaries.
+ *
+ * @author Maksim Filkov
+ */
+public interface EntryImportService {
+
+   /**
+    * Imports all entries read from the given stream. The stream is read line by line, so the dictionary is never held
+    * in memory entirely. Invalid entries are rejected and reported, the valid ones are committed at the end.
+    *
+    * @param dictionary   Stream with dictionary entries, one entry per line.
+    * @param format       Dictionary format.
+    * @param languagePair Language pair.
+    * @return Import report.
+    */
+   ImportReport importEntries(final InputStream dictionary, final ImportFormat format,
+                              final LanguagePair languagePair);
+
+   /**
+    * Moves entries saved with random identifiers to identifiers derived from their content and commits them.
+    *
+    * @param languagePair Language pair.
+    * @return Number of migrated entries.
+    */
+   long migrateIds(final LanguagePair languagePair);
+
+}
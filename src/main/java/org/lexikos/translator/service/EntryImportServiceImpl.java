@@ -0,0 +1,226 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.log4j.Logger;
+import org.lexikos.translator.config.LanguagePairRegistry;
+import org.lexikos.translator.constant.ImportFormat;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.dao.entry.EntryRepositoryImpl;
+import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.ImportReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * This service imports dictionaries in batches: parts of speech of a batch are resolved in parallel, then the batch
+ * is sent to Solr at once. All batches are committed with a single commit at the end of import.
+ *
+ * @author Maksim Filkov
+ */
+@Service
+@ManagedResource(objectName = "org.lexikos.translator:name=EntryImport")
+public class EntryImportServiceImpl implements EntryImportService {
+
+   static Logger log = Logger.getLogger(EntryImportServiceImpl.class.getName());
+
+   private static final String TSV_SEPARATOR = "\t";
+
+   @Value("${search.import.batch_size}")
+   private int batchSize;
+
+   @Value("${search.import.max_reported_rejects}")
+   private int maxReportedRejects;
+
+   @Resource
+   private EntryServiceImpl entryService;
+
+   @Resource
+   private EntryRepositoryImpl entryRepository;
+
+   @Resource
+   private ObjectMapper objectMapper;
+
+   @Resource
+   private Validator validator;
+
+   @Resource
+   private ThreadPoolTaskExecutor importExecutor;
+
+   @Resource
+   private ExactMatchCache exactMatchCache;
+
+   @Resource
+   private LanguagePairRegistry languagePairRegistry;
+
+   private ObjectReader entryReader;
+
+   @PostConstruct
+   public void init() {
+      entryReader = objectMapper.readerFor(Entry.class);
+   }
+
+   @Override
+   public ImportReport importEntries(final InputStream dictionary, final ImportFormat format,
+                                     final LanguagePair languagePair) {
+      final long start = System.currentTimeMillis();
+      final ImportReport report = new ImportReport();
+      final List<Entry> entries = new ArrayList<>(batchSize);
+      final List<Long> lines = new ArrayList<>(batchSize);
+      try (final BufferedReader reader = new BufferedReader(new InputStreamReader(dictionary, StandardCharsets.UTF_8))) {
+         long lineNumber = 0;
+         String line;
+         while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+               continue;
+            }
+            final Entry entry = read(line, format, lineNumber, report);
+            if (entry != null) {
+               entries.add(entry);
+               lines.add(lineNumber);
+            }
+            if (entries.size() >= batchSize) {
+               save(entries, lines, languagePair, report);
+            }
+         }
+         save(entries, lines, languagePair, report);
+      } catch (final IOException e) {
+         throw new RuntimeException(e);
+      }
+      if (report.getImported() > 0) {
+         entryRepository.commit(languagePair);
+         exactMatchCache.invalidateAll(languagePair);
+      }
+
+      report.setElapsedMillis(System.currentTimeMillis() - start);
+      report.setEntriesPerSecond(report.getImported() * 1000.0 / Math.max(report.getElapsedMillis(), 1));
+      log.info("Imported " + report.getImported() + " entries to " + languagePair + " in "
+            + report.getElapsedMillis() + " ms, rejected " + report.getRejected());
+      return report;
+   }
+
+   @Override
+   public long migrateIds(final LanguagePair languagePair) {
+      final long start = System.currentTimeMillis();
+      final long migrated = entryRepository.migrateIds(languagePair);
+      if (migrated > 0) {
+         exactMatchCache.invalidateAll(languagePair);
+      }
+      log.info("Migrated " + migrated + " entries of " + languagePair + " to content identifiers in "
+            + (System.currentTimeMillis() - start) + " ms");
+      return migrated;
+   }
+
+   @ManagedOperation(description = "Moves entries of the language pair to identifiers derived from their content")
+   @ManagedOperationParameters(
+         @ManagedOperationParameter(name = "languagePair", description = "Language pair abbreviation"))
+   public long migrateIds(final String languagePair) {
+      return migrateIds(languagePairRegistry.get(languagePair));
+   }
+
+   private Entry read(final String line, final ImportFormat format, final long lineNumber,
+                      final ImportReport report) {
+      final Entry entry;
+      try {
+         entry = format == ImportFormat.TSV ? readTsv(line) : entryReader.readValue(line);
+      } catch (final IOException e) {
+         reject(report, lineNumber, Collections.singletonList(e.getMessage()));
+         return null;
+      }
+      final List<String> errors = validator.validate(entry)
+            .stream()
+            .map(e -> e.getPropertyPath() + ": " + e.getMessage())
+            .collect(Collectors.toList());
+      if (!errors.isEmpty()) {
+         reject(report, lineNumber, errors);
+         return null;
+      }
+      return entry;
+   }
+
+   private Entry readTsv(final String line) {
+      final String[] values = line.split(TSV_SEPARATOR, -1);
+      return new Entry()
+            .setSourcePhrase(value(values, 0))
+            .setTargetPhrase(value(values, 1))
+            .setCommentary(value(values, 2))
+            .setDictionary(value(values, 3))
+            .setAuthor(value(values, 4))
+            .setPronunciation(value(values, 5));
+   }
+
+   private String value(final String[] values, final int index) {
+      return index < values.length && !values[index].isEmpty() ? values[index] : null;
+   }
+
+   /**
+    * Resolves parts of speech of the given entries in parallel and saves them, the given lists are cleared afterwards.
+    */
+   private void save(final List<Entry> entries, final List<Long> lines, final LanguagePair languagePair,
+                     final ImportReport report) {
+      final List<CompletableFuture<Entry>> prepared = entries
+            .stream()
+            .map(entry -> CompletableFuture.supplyAsync(() -> entryService.prepare(entry, languagePair),
+                  importExecutor))
+            .collect(Collectors.toList());
+      final List<Entry> batch = new ArrayList<>(entries.size());
+      for (int i = 0; i < prepared.size(); i++) {
+         try {
+            batch.add(prepared.get(i).join());
+         } catch (final CompletionException e) {
+            reject(report, lines.get(i), Collections.singletonList(String.valueOf(e.getCause().getMessage())));
+         }
+      }
+      if (!batch.isEmpty()) {
+         entryRepository.saveEntries(batch, languagePair);
+         report.setImported(report.getImported() + batch.size());
+      }
+      entries.clear();
+      lines.clear();
+   }
+
+   private void reject(final ImportReport report, final long lineNumber, final List<String> errors) {
+      report.setRejected(report.getRejected() + 1);
+      if (report.getRejects().size() < maxReportedRejects) {
+         report.getRejects().add(new ImportReport.Reject(lineNumber, errors));
+      }
+   }
+
+}
@@ -16,14 +16,19 @@
 
 package org.lexikos.translator.service;
 
+import org.lexikos.translator.constant.EntryField;
 import org.lexikos.translator.constant.LanguagePair;
 import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.MultiPairResult;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.lexikos.translator.domain.PageableResult;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provides APIs to work with dictionary entries.
@@ -37,9 +42,21 @@ public interface EntryService {
     * @param phrase       Source phrase to use when searching.
     * @param languagePair Language pair.
     * @param page         Pagination information.
+    * @param fields       Fields of entries to be returned, all fields if empty.
     * @return All partially matched entries found for the given phrase split by dictionaries.
     */
-   PageableResult getAll(final String phrase, final LanguagePair languagePair, final Pageable page);
+   PageableResult getAll(final String phrase, final LanguagePair languagePair, final Pageable page,
+                         final Set<EntryField> fields);
+
+   /**
+    * @param phrase       Source phrase to use when searching.
+    * @param languagePair Language pair.
+    * @param cursor       "*" for the first page, otherwise continuation token returned with the previous page.
+    * @param fields       Fields of entries to be returned, all fields if empty.
+    * @return A page of partially matched entries found for the given phrase with continuation token of the next page.
+    */
+   PageableResult getAll(final String phrase, final LanguagePair languagePair, final String cursor,
+                         final Set<EntryField> fields);
 
    /**
     * @param phrase       Source phrase to use when searching.
@@ -48,6 +65,51 @@ public interface EntryService {
     */
    List<Entry> getAll(final String phrase, final LanguagePair languagePair);
 
+   /**
+    * Searches many phrases at once by a few Solr requests. Phrases which differ only in case and whitespaces are
+    * searched once.
+    *
+    * @param phrases      Source phrases to use when searching.
+    * @param languagePair Language pair.
+    * @return All exactly matched entries found for each of the given phrases.
+    */
+   Map<String, List<Entry>> getAll(final List<String> phrases, final LanguagePair languagePair);
+
+   /**
+    * Searches all the language pairs concurrently. Language pairs which do not answer in time or fail are reported in
+    * the result instead of failing the whole search.
+    *
+    * @param phrase        Source phrase to use when searching.
+    * @param languagePairs Language pairs to search.
+    * @return All exactly matched entries found for the given phrase split by language pairs.
+    */
+   MultiPairResult getAll(final String phrase, final Collection<LanguagePair> languagePairs);
+
+   /**
+    * Returns copies of the entries containing only the given fields.
+    *
+    * @param entries Entries to project.
+    * @param fields  Fields of entries to be returned, all fields if empty.
+    * @return Projected entries, the same entries if all fields are requested.
+    */
+   List<Entry> project(final List<Entry> entries, final Set<EntryField> fields);
+
+   /**
+    * @param prefix       Prefix of source or target phrases.
+    * @param languagePair Language pair.
+    * @param maxResults   Maximum number of returned phrases.
+    * @return The most popular phrases starting with the prefix.
+    */
+   List<String> suggest(final String prefix, final LanguagePair languagePair, final int maxResults);
+
+   /**
+    * @param phrase       Possibly misspelled source or target phrase.
+    * @param languagePair Language pair.
+    * @param maxResults   Maximum number of returned phrases.
+    * @return Phrases within a few typos of the given one, the closest ones first.
+    */
+   List<String> correct(final String phrase, final LanguagePair languagePair, final int maxResults);
+
    Entry get(final String entryId, final LanguagePair languagePair);
 
    Entry get(final String sourcePhrase, final String targetPhrase, final String partOfSpeech,
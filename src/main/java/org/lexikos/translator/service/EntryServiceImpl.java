@@ -16,28 +16,44 @@
 
 package org.lexikos.translator.service;
 
-import org.apache.commons.io.FilenameUtils;
+import org.apache.log4j.Logger;
+import org.lexikos.translator.config.RequestTimings;
+import org.lexikos.translator.constant.EntryField;
 import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.constant.TranslationDirection;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.lexikos.translator.constant.PartOfSpeech;
 import org.lexikos.translator.dao.entry.EntryRepositoryImpl;
+import org.lexikos.translator.dao.entry.ExactMatchIndex;
+import org.lexikos.translator.dao.entry.SpellingIndex;
+import org.lexikos.translator.dao.entry.SuggestionIndex;
 import org.lexikos.translator.dao.morpho.MorphologyRepository;
 import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.MatchResult;
+import org.lexikos.translator.domain.MultiPairResult;
 import org.lexikos.translator.domain.PageableResult;
 
 import javax.annotation.Resource;
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * This service implements APIs related to working with dictionary entries in repository.
@@ -47,9 +63,17 @@ import java.util.Set;
 @Service
 public class EntryServiceImpl implements EntryService {
 
+   static Logger log = Logger.getLogger(EntryServiceImpl.class.getName());
+
    private static final String DEFAULT_PART_OF_SPEECH = PartOfSpeech.PHRASE.getName();
-   @Value("${server.image.upload.dir}")
-   private String serverImageUploadDir;
+   @Value("${morpho.deadline_ms}")
+   private long morphoDeadlineMs;
+   @Value("${search.suggest.max_results}")
+   private int maxSuggestions;
+   @Value("${search.spelling.max_results}")
+   private int maxCorrections;
+   @Value("${search.fanout.deadline_ms}")
+   private long searchDeadlineMs;
    @Resource
    private EntryRepositoryImpl entryRepository;
    @Resource
@@ -58,15 +82,135 @@ public class EntryServiceImpl implements EntryService {
    @Resource
    private MorphologyRepository morphoRepository;
 
+   @Resource
+   private ThreadPoolTaskExecutor morphologyExecutor;
+
+   @Resource
+   private ThreadPoolTaskExecutor searchExecutor;
+
+   @Resource
+   private ExactMatchCache exactMatchCache;
+
+   @Resource
+   private SuggestionIndex suggestionIndex;
+
+   @Resource
+   private SpellingIndex spellingIndex;
+
+   @Resource
+   private ImageService imageService;
+
    public List<Entry> getAll(final String phrase, final LanguagePair languagePair) {
-      final List<Entry> entries = entryRepository.findExactlyMatched(phrase, languagePair).getContent();
-      return swapPhrases(phrase, entries, languagePair);
+      final List<Entry> entries = exactMatchCache.get(phrase, languagePair, () -> {
+         final MatchResult result = entryRepository.findExactlyMatched(phrase, languagePair);
+         return swapPhrases(result.getEntries().getContent(), result.getDirection());
+      });
+      if (!entries.isEmpty()) {
+         suggestionIndex.hit(phrase, languagePair);
+      }
+      return entries;
+   }
+
+   public Map<String, List<Entry>> getAll(final List<String> phrases, final LanguagePair languagePair) {
+      final Map<String, List<Entry>> found = new HashMap<>();
+      final Map<String, String> notCached = new LinkedHashMap<>();
+      for (final String phrase : phrases) {
+         if (phrase == null || phrase.trim().isEmpty()) {
+            continue;
+         }
+         final String key = ExactMatchIndex.normalize(phrase);
+         if (found.containsKey(key) || notCached.containsKey(key)) {
+            continue;
+         }
+         final List<Entry> cached = exactMatchCache.getIfPresent(phrase, languagePair);
+         if (cached != null) {
+            found.put(key, cached);
+         } else {
+            notCached.put(key, phrase);
+         }
+      }
+      if (!notCached.isEmpty()) {
+         final long loadGeneration = exactMatchCache.getGeneration();
+         final Map<String, MatchResult> results = entryRepository.findExactlyMatched(notCached.values(), languagePair);
+         notCached.forEach((key, phrase) -> {
+            final MatchResult result = results.get(key);
+            final List<Entry> entries = result != null
+                  ? swapPhrases(result.getEntries().getContent(), result.getDirection())
+                  : Collections.emptyList();
+            found.put(key, exactMatchCache.put(phrase, languagePair, entries, loadGeneration));
+         });
+      }
+      final Map<String, List<Entry>> entriesByPhrase = new LinkedHashMap<>();
+      phrases.stream().filter(phrase -> phrase != null).forEach(phrase -> entriesByPhrase.put(phrase,
+            found.getOrDefault(ExactMatchIndex.normalize(phrase), Collections.emptyList())));
+      return entriesByPhrase;
+   }
+
+   public MultiPairResult getAll(final String phrase, final Collection<LanguagePair> languagePairs) {
+      final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(searchDeadlineMs);
+      final Map<LanguagePair, CompletableFuture<List<Entry>>> futures = new LinkedHashMap<>();
+      languagePairs.forEach(languagePair -> futures.put(languagePair, searchAsync(phrase, languagePair)));
+
+      final MultiPairResult result = new MultiPairResult();
+      for (final Map.Entry<LanguagePair, CompletableFuture<List<Entry>>> future : futures.entrySet()) {
+         final String abbreviation = future.getKey().getAbbreviation();
+         try {
+            result.getEntries().put(abbreviation,
+                  future.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+         } catch (final TimeoutException e) {
+            log.warn("Language pair " + abbreviation + " did not answer in " + searchDeadlineMs + " ms");
+            future.getValue().cancel(true);
+            result.getTimedOut().add(abbreviation);
+         } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.values().forEach(pending -> pending.cancel(true));
+            throw new IllegalStateException("Search has been interrupted", e);
+         } catch (final ExecutionException e) {
+            log.error("Language pair " + abbreviation + " failed to answer", e.getCause());
+            result.getFailed().add(abbreviation);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Starts the search of the language pair on the search executor. Cancelling the returned future skips the search
+    * if it has not started yet, a running search is not interrupted and holds its thread until Solr answers or the
+    * Solr socket timeout expires.
+    */
+   private CompletableFuture<List<Entry>> searchAsync(final String phrase, final LanguagePair languagePair) {
+      try {
+         return CompletableFuture.supplyAsync(RequestTimings.propagate(() -> getAll(phrase, languagePair)),
+               searchExecutor);
+      } catch (final TaskRejectedException e) {
+         final CompletableFuture<List<Entry>> rejected = new CompletableFuture<>();
+         rejected.completeExceptionally(e);
+         return rejected;
+      }
+   }
+
+   public List<String> suggest(final String prefix, final LanguagePair languagePair, final int maxResults) {
+      return suggestionIndex.suggest(prefix, languagePair, Math.min(maxResults, maxSuggestions));
+   }
+
+   public List<String> correct(final String phrase, final LanguagePair languagePair, final int maxResults) {
+      return spellingIndex.correct(phrase, languagePair, Math.min(maxResults, maxCorrections));
    }
 
-   public PageableResult getAll(final String phrase, final LanguagePair languagePair, final Pageable page) {
-      final Page<Entry> entries = entryRepository.findPartiallyMatched(phrase, languagePair, page);
-      final PageableResult pageableResult = new PageableResult(entries);
-      pageableResult.setEntries(swapPhrases(phrase, entries.getContent(), languagePair));
+   public PageableResult getAll(final String phrase, final LanguagePair languagePair, final Pageable page,
+                                final Set<EntryField> fields) {
+      final MatchResult result = entryRepository.findPartiallyMatched(phrase, languagePair, page, fields);
+      final PageableResult pageableResult = new PageableResult(result.getEntries());
+      pageableResult.setEntries(project(swapPhrases(result.getEntries().getContent(), result.getDirection()), fields));
+      return pageableResult;
+   }
+
+   public PageableResult getAll(final String phrase, final LanguagePair languagePair, final String cursor,
+                                final Set<EntryField> fields) {
+      final MatchResult result = entryRepository.findPartiallyMatched(phrase, languagePair, cursor, fields);
+      final PageableResult pageableResult = new PageableResult(result.getEntries());
+      pageableResult.setEntries(project(swapPhrases(result.getEntries().getContent(), result.getDirection()), fields));
+      pageableResult.setNextCursor(result.getNextCursor());
       return pageableResult;
    }
 
@@ -80,12 +224,10 @@ public class EntryServiceImpl implements EntryService {
    }
 
    public Entry create(final Entry entry, final LanguagePair languagePair) {
-      final Entry anEntry = swapPhrases(entry, languagePair);
-      anEntry.setPartOfSpeech(getPartOfSpeech(anEntry, languagePair));
-      entry.setSourcePhrase(entry.getSourcePhrase().trim());
-      entry.setTargetPhrase(entry.getTargetPhrase().trim());
+      final Entry anEntry = prepare(entry, languagePair);
       entryRepository.saveEntry(anEntry, languagePair);
-      return get(anEntry.getSourcePhrase(), anEntry.getTargetPhrase(), anEntry.getPartOfSpeech(), languagePair);
+      exactMatchCache.invalidate(anEntry, languagePair);
+      return anEntry;
    }
 
    public Entry update(final Entry entry, final LanguagePair languagePair) {
@@ -93,15 +235,17 @@ public class EntryServiceImpl implements EntryService {
       if (!originalEntry.getAuthor().equals(entry.getAuthor())) {
          throw new IllegalArgumentException("Wrong author");
       }
-      final Entry anEntry = swapPhrases(entry, languagePair);
-      anEntry.setPartOfSpeech(getPartOfSpeech(anEntry, languagePair));
-      return create(anEntry.setId(null), languagePair);
+      final Entry updated = prepare(entry.setId(null), languagePair);
+      entryRepository.replaceEntry(originalEntry.getId(), updated, languagePair);
+      exactMatchCache.invalidate(updated, languagePair);
+      exactMatchCache.invalidate(originalEntry, languagePair);
+      return updated;
    }
 
    public Entry update(final String entryId, final LanguagePair languagePair, final MultipartFile imageFile) {
       String imageName;
       try {
-         imageName = saveEntryImage(imageFile);
+         imageName = imageService.save(imageFile);
       } catch (final IOException e) {
          throw new RuntimeException(e);
       }
@@ -111,28 +255,61 @@ public class EntryServiceImpl implements EntryService {
    }
 
    public void delete(final String entryId, final LanguagePair languagePair) {
+      final Entry entry = get(entryId, languagePair);
       entryRepository.deleteEntry(entryId, languagePair);
+      if (entry != null) {
+         exactMatchCache.invalidate(entry, languagePair);
+      }
    }
 
-   private String saveEntryImage(final MultipartFile imageFile) throws IOException {
-      if (imageFile.isEmpty()) {
-         return null;
-      }
-      final byte[] bytes = imageFile.getBytes();
-      final String imageFileExtension = "." + FilenameUtils.getExtension(imageFile.getOriginalFilename());
-      final File file = File.createTempFile("image", imageFileExtension, new File(serverImageUploadDir));
-      try (final BufferedOutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
-         stream.write(bytes);
-         stream.close();
-      }
-      return file.getName();
+   /**
+    * Prepares a new entry to be saved: puts its phrases in the order of the language pair, trims them and resolves
+    * part of speech.
+    *
+    * @param entry        Entry to prepare.
+    * @param languagePair Language pair.
+    * @return Prepared entry.
+    */
+   Entry prepare(final Entry entry, final LanguagePair languagePair) {
+      final Entry anEntry = swapPhrases(entry, languagePair);
+      anEntry.setSourcePhrase(anEntry.getSourcePhrase().trim());
+      anEntry.setTargetPhrase(anEntry.getTargetPhrase().trim());
+      anEntry.setPartOfSpeech(getPartOfSpeech(anEntry, languagePair));
+      return anEntry;
    }
 
+   /**
+    * Finds parts of speech of both phrases concurrently. If the morphology service does not answer in time, the entry
+    * is considered to be a phrase.
+    */
    private String getPartOfSpeech(final Entry entry, final LanguagePair languagePair) {
-      final List<String> phrasePartsOfSpeech = morphoRepository.findPartsOfSpeech(entry.getSourcePhrase(),
-            languagePair.getSourceLanguage());
-      final List<String> translationPartsOfSpeech = morphoRepository.findPartsOfSpeech(entry.getTargetPhrase(),
-            languagePair.getTargetLanguage());
+      final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(morphoDeadlineMs);
+      final CompletableFuture<List<String>> phraseFuture = CompletableFuture.supplyAsync(
+            RequestTimings.propagate(() ->
+                  morphoRepository.findPartsOfSpeech(entry.getSourcePhrase(), languagePair.getSourceLanguage())),
+            morphologyExecutor);
+      final CompletableFuture<List<String>> translationFuture = CompletableFuture.supplyAsync(
+            RequestTimings.propagate(() ->
+                  morphoRepository.findPartsOfSpeech(entry.getTargetPhrase(), languagePair.getTargetLanguage())),
+            morphologyExecutor);
+
+      final List<String> phrasePartsOfSpeech;
+      final List<String> translationPartsOfSpeech;
+      try {
+         phrasePartsOfSpeech = phraseFuture.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+         translationPartsOfSpeech = translationFuture.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      } catch (final TimeoutException e) {
+         log.warn("Morphology service did not answer in " + morphoDeadlineMs + " ms for " + entry.getSourcePhrase());
+         return DEFAULT_PART_OF_SPEECH;
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return DEFAULT_PART_OF_SPEECH;
+      } catch (final ExecutionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new RuntimeException(e.getCause());
+      }
 
       if (phrasePartsOfSpeech.isEmpty()) {
          return (!translationPartsOfSpeech.isEmpty()) ? translationPartsOfSpeech.get(0) : DEFAULT_PART_OF_SPEECH;
@@ -161,20 +338,28 @@ public class EntryServiceImpl implements EntryService {
       return entry;
    }
 
-   private List<Entry> swapPhrases(final String phrase, final List<Entry> entries, final LanguagePair languagePair) {
-      final String phraseLanguage = languageDetectionService.detect(phrase);
-
-      if (!phraseLanguage.equals(languagePair.getSourceLanguage())) {
+   /**
+    * Entries matched in reverse translation direction are turned around, so the searched phrase is always the source
+    * phrase of the returned entries. The given entries are not changed, turned around copies are returned instead.
+    */
+   List<Entry> swapPhrases(final List<Entry> entries, final TranslationDirection direction) {
+      if (direction == TranslationDirection.REVERSE) {
          final List<Entry> another = new ArrayList<>();
          for (final Entry entry : entries) {
-            final String tmp = entry.getSourcePhrase();
-            entry.setSourcePhrase(entry.getTargetPhrase());
-            entry.setTargetPhrase(tmp);
-            another.add(entry);
+            another.add(entry.copy()
+                  .setSourcePhrase(entry.getTargetPhrase())
+                  .setTargetPhrase(entry.getSourcePhrase()));
          }
          return another;
       }
       return entries;
    }
 
+   public List<Entry> project(final List<Entry> entries, final Set<EntryField> fields) {
+      if (fields.isEmpty()) {
+         return entries;
+      }
+      return entries.stream().map(entry -> entry.copy(fields)).collect(Collectors.toList());
+   }
+
 }
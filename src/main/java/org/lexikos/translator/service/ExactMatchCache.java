@@ -0,0 +1,243 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.apache.log4j.Logger;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.dao.entry.EntryCommitter;
+import org.lexikos.translator.dao.entry.ExactMatchIndex;
+import org.lexikos.translator.domain.Entry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of exactly matched entries keyed by normalized phrase and language pair. The cache is weighted by the
+ * number of cached entries, so a few headwords with lots of translations cannot push out the others.
+ * <p>
+ * Every invalidation increases the cache generation. A load which has seen the generation change while running is
+ * not kept in cache, since it might have read the entries before the change. If changes are committed by Solr on its
+ * own, the phrases are invalidated once more when the changes are bound to be visible.
+ *
+ * @author Maksim Filkov
+ */
+@Component
+@ManagedResource(objectName = "org.lexikos.translator:name=ExactMatchCache")
+public class ExactMatchCache {
+
+   static Logger log = Logger.getLogger(ExactMatchCache.class.getName());
+
+   @Value("${search.exact.cache.max_weight}")
+   private long maxWeight;
+
+   @Value("${search.exact.cache.ttl_seconds}")
+   private long ttlSeconds;
+
+   @Resource
+   private EntryCommitter entryCommitter;
+
+   private final AtomicLong generation = new AtomicLong();
+
+   private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("exact-cache-"));
+
+   private Cache<Key, List<Entry>> cache;
+
+   @PostConstruct
+   public void init() {
+      cache = CacheBuilder.newBuilder()
+         .maximumWeight(maxWeight)
+         .weigher((Weigher<Key, List<Entry>>) (key, entries) -> entries.size() + 1)
+         .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+         .recordStats()
+         .build();
+   }
+
+   /**
+    * Returns cached entries for the given phrase, the entries are loaded and cached if absent.
+    *
+    * @param phrase       Searched phrase.
+    * @param languagePair Language pair.
+    * @param loader       Loads entries on cache miss.
+    * @return Unmodifiable list of entries found for the given phrase.
+    */
+   public List<Entry> get(final String phrase, final LanguagePair languagePair, final Callable<List<Entry>> loader) {
+      final Key key = new Key(ExactMatchIndex.normalize(phrase), languagePair);
+      final long loadGeneration = generation.get();
+      try {
+         final List<Entry> entries = cache.get(key, () -> Collections.unmodifiableList(loader.call()));
+         discardIfInvalidated(key, loadGeneration);
+         return entries;
+      } catch (final ExecutionException | UncheckedExecutionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new IllegalStateException(e.getCause());
+      }
+   }
+
+   /**
+    * Returns cached entries for the given phrase.
+    *
+    * @param phrase       Searched phrase.
+    * @param languagePair Language pair.
+    * @return Unmodifiable list of entries found for the given phrase or null if the phrase is not cached.
+    */
+   public List<Entry> getIfPresent(final String phrase, final LanguagePair languagePair) {
+      return cache.getIfPresent(new Key(ExactMatchIndex.normalize(phrase), languagePair));
+   }
+
+   /**
+    * Returns the current cache generation, it should be taken before loading entries to be {@link #put}.
+    *
+    * @return Cache generation.
+    */
+   public long getGeneration() {
+      return generation.get();
+   }
+
+   /**
+    * Caches entries found for the given phrase, unless an invalidation happened since they started to be loaded.
+    *
+    * @param phrase         Searched phrase.
+    * @param languagePair   Language pair.
+    * @param entries        Entries found for the given phrase.
+    * @param loadGeneration Cache generation taken before the entries started to be loaded.
+    * @return Unmodifiable list of the entries.
+    */
+   public List<Entry> put(final String phrase, final LanguagePair languagePair, final List<Entry> entries,
+                          final long loadGeneration) {
+      final Key key = new Key(ExactMatchIndex.normalize(phrase), languagePair);
+      final List<Entry> cached = Collections.unmodifiableList(entries);
+      cache.put(key, cached);
+      discardIfInvalidated(key, loadGeneration);
+      return cached;
+   }
+
+   /**
+    * Evicts cached entries found for both phrases of the given entry.
+    *
+    * @param entry        Created, updated or deleted entry.
+    * @param languagePair Language pair.
+    */
+   public void invalidate(final Entry entry, final LanguagePair languagePair) {
+      final List<Key> keys = new ArrayList<>(2);
+      if (entry.getSourcePhrase() != null) {
+         keys.add(new Key(ExactMatchIndex.normalize(entry.getSourcePhrase()), languagePair));
+      }
+      if (entry.getTargetPhrase() != null) {
+         keys.add(new Key(ExactMatchIndex.normalize(entry.getTargetPhrase()), languagePair));
+      }
+      invalidate(keys);
+      final int commitWithinMs = entryCommitter.getCommitWithin();
+      if (commitWithinMs > 0) {
+         try {
+            scheduler.schedule(() -> invalidate(keys), commitWithinMs, TimeUnit.MILLISECONDS);
+         } catch (final RejectedExecutionException e) {
+            log.warn("Unable to schedule invalidation of " + keys.size() + " phrases of " + languagePair, e);
+         }
+      }
+   }
+
+   /**
+    * Evicts all cached entries of the given language pair.
+    *
+    * @param languagePair Language pair.
+    */
+   public void invalidateAll(final LanguagePair languagePair) {
+      generation.incrementAndGet();
+      cache.asMap().keySet().removeIf(key -> key.languagePair.equals(languagePair));
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      scheduler.shutdownNow();
+   }
+
+   @ManagedAttribute(description = "Number of cached phrases")
+   public long getSize() {
+      return cache.size();
+   }
+
+   @ManagedAttribute(description = "Number of lookups served from cache")
+   public long getHitCount() {
+      return cache.stats().hitCount();
+   }
+
+   @ManagedAttribute(description = "Number of lookups sent to Solr")
+   public long getMissCount() {
+      return cache.stats().missCount();
+   }
+
+   @ManagedAttribute(description = "Ratio of lookups served from cache")
+   public double getHitRate() {
+      return cache.stats().hitRate();
+   }
+
+   @ManagedAttribute(description = "Number of phrases evicted due to size or expiration")
+   public long getEvictionCount() {
+      return cache.stats().evictionCount();
+   }
+
+   private void invalidate(final List<Key> keys) {
+      generation.incrementAndGet();
+      cache.invalidateAll(keys);
+   }
+
+   /**
+    * The generation is increased before keys are invalidated, so either the invalidation removes the loaded entries
+    * or the generation change is seen here.
+    */
+   private void discardIfInvalidated(final Key key, final long loadGeneration) {
+      if (generation.get() != loadGeneration) {
+         cache.invalidate(key);
+      }
+   }
+
+   @AllArgsConstructor
+   @EqualsAndHashCode
+   private static final class Key {
+
+      private final String phrase;
+
+      private final LanguagePair languagePair;
+
+   }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+/**
+ * Provides APIs to store images of dictionary entries.
+ *
+ * @author Maksim Filkov
+ */
+public interface ImageService {
+
+   /**
+    * Stores the image in the upload directory under a name derived from its content, so an image uploaded several
+    * times is stored once. Thumbnails of the image are created in background.
+    *
+    * @param imageFile Uploaded image.
+    * @return Name of the stored image or null if the upload is empty.
+    * @throws IOException If the image cannot be stored.
+    */
+   String save(final MultipartFile imageFile) throws IOException;
+
+}
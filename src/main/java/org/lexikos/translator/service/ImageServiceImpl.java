@@ -0,0 +1,243 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lexikos.translator.service;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.Resource;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * This service streams uploaded images to disk while hashing them, the image is never held in memory entirely. Images
+ * are named by SHA-256 of their content, thumbnails are named by the image name and their size, e.g.
+ * "&lt;hash&gt;_256.png". A stored image is linked to its name rather than moved, since a move replaces an existing
+ * file on POSIX while a link fails, so uploads of an already stored image only recreate its missing thumbnails. On
+ * file systems without hard links the image is moved instead. Temporary files are readable by the owner only, so the
+ * stored files get {@code server.image.file_permissions} to stay readable by whatever serves them.
+ *
+ * @author Maksim Filkov
+ */
+@Service
+public class ImageServiceImpl implements ImageService {
+
+   static Logger log = Logger.getLogger(ImageServiceImpl.class.getName());
+
+   private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+
+   private static final long TRANSFER_CHUNK_BYTES = 1 << 20;
+
+   @Value("${server.image.upload.dir}")
+   private String serverImageUploadDir;
+
+   @Value("#{'${server.image.thumbnail.sizes}'.split(',')}")
+   private List<Integer> thumbnailSizes;
+
+   @Value("${server.image.max_pixels}")
+   private long maxPixels;
+
+   @Value("${server.image.file_permissions}")
+   private String filePermissions;
+
+   @Resource
+   private ThreadPoolTaskExecutor imageExecutor;
+
+   @Override
+   public String save(final MultipartFile imageFile) throws IOException {
+      if (imageFile.isEmpty()) {
+         return null;
+      }
+      final Path uploadDir = Paths.get(serverImageUploadDir);
+      final Path tempFile = Files.createTempFile(uploadDir, "upload", ".tmp");
+      final String hash;
+      try {
+         try (final HashingInputStream input = new HashingInputStream(Hashing.sha256(), imageFile.getInputStream());
+              final ReadableByteChannel source = Channels.newChannel(input);
+              final FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK_BYTES)) > 0) {
+               position += transferred;
+            }
+            hash = input.hash().toString();
+         }
+         final String imageName = hash + getExtension(imageFile.getOriginalFilename());
+         final Path imageFilePath = uploadDir.resolve(imageName);
+         setPermissions(tempFile);
+         if (!store(tempFile, imageFilePath) && hasAllThumbnails(imageFilePath)) {
+            return imageName;
+         }
+         imageExecutor.execute(() -> createThumbnails(imageFilePath));
+         return imageName;
+      } finally {
+         Files.deleteIfExists(tempFile);
+      }
+   }
+
+   /**
+    * Stores the uploaded file under the image name.
+    *
+    * @return False if the image has been stored already.
+    */
+   private boolean store(final Path tempFile, final Path imageFilePath) throws IOException {
+      try {
+         Files.createLink(imageFilePath, tempFile);
+         return true;
+      } catch (final FileAlreadyExistsException e) {
+         return false;
+      } catch (final UnsupportedOperationException | FileSystemException e) {
+         if (Files.exists(imageFilePath)) {
+            return false;
+         }
+         Files.move(tempFile, imageFilePath, StandardCopyOption.ATOMIC_MOVE);
+         return true;
+      }
+   }
+
+   private void setPermissions(final Path file) throws IOException {
+      if (Files.getFileStore(file).supportsFileAttributeView(PosixFileAttributeView.class)) {
+         Files.setPosixFilePermissions(file, PosixFilePermissions.fromString(filePermissions));
+      }
+   }
+
+   private String getExtension(final String fileName) {
+      final String extension = FilenameUtils.getExtension(fileName).toLowerCase(Locale.ROOT);
+      return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+   }
+
+   private Path getThumbnailPath(final Path imageFilePath, final int size) {
+      final String imageName = imageFilePath.getFileName().toString();
+      return imageFilePath.resolveSibling(
+         FilenameUtils.getBaseName(imageName) + "_" + size + "." + FilenameUtils.getExtension(imageName));
+   }
+
+   /**
+    * Images without extension get no thumbnails, so for them there is nothing to recreate.
+    */
+   private boolean hasAllThumbnails(final Path imageFilePath) {
+      return FilenameUtils.getExtension(imageFilePath.getFileName().toString()).isEmpty()
+         || thumbnailSizes.stream().allMatch(size -> Files.exists(getThumbnailPath(imageFilePath, size)));
+   }
+
+   /**
+    * Creates missing thumbnails of the image. The dimensions are read from the image header first, images with more
+    * than {@code server.image.max_pixels} pixels are not decoded at all.
+    */
+   private void createThumbnails(final Path imageFilePath) {
+      final String imageName = imageFilePath.getFileName().toString();
+      final String format = FilenameUtils.getExtension(imageName);
+      try {
+         final BufferedImage image = format.isEmpty() ? null : read(imageFilePath);
+         if (image == null) {
+            return;
+         }
+         for (final int size : thumbnailSizes) {
+            final Path thumbnailPath = getThumbnailPath(imageFilePath, size);
+            if (!Files.exists(thumbnailPath)) {
+               writeThumbnail(image, size, format, thumbnailPath);
+            }
+         }
+      } catch (final IOException | RuntimeException e) {
+         log.error("Unable to create thumbnails of " + imageName, e);
+      }
+   }
+
+   private BufferedImage read(final Path imageFilePath) throws IOException {
+      final String imageName = imageFilePath.getFileName().toString();
+      try (final ImageInputStream input = ImageIO.createImageInputStream(imageFilePath.toFile())) {
+         final Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+         if (readers == null || !readers.hasNext()) {
+            log.warn("Unable to create thumbnails of " + imageName + ", the format is not supported");
+            return null;
+         }
+         final ImageReader reader = readers.next();
+         try {
+            reader.setInput(input, true, true);
+            final long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+            if (pixels > maxPixels) {
+               log.warn("Unable to create thumbnails of " + imageName + ", the image has " + pixels + " pixels");
+               return null;
+            }
+            return reader.read(0);
+         } finally {
+            reader.dispose();
+         }
+      }
+   }
+
+   /**
+    * Scales the image down to fit the size, images smaller than the size are kept as they are. The thumbnail is
+    * written to a temporary file first, so a partially written thumbnail is never served.
+    */
+   private void writeThumbnail(final BufferedImage image, final int size, final String format,
+                               final Path thumbnailPath) throws IOException {
+      final double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+      final int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+      final int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+      final int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+      final BufferedImage thumbnail = new BufferedImage(width, height, type);
+      final Graphics2D graphics = thumbnail.createGraphics();
+      try {
+         graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+         graphics.drawImage(image, 0, 0, width, height, null);
+      } finally {
+         graphics.dispose();
+      }
+      final Path tempFile = Files.createTempFile(thumbnailPath.getParent(), "thumbnail", ".tmp");
+      try {
+         try (final OutputStream output = Files.newOutputStream(tempFile)) {
+            if (!ImageIO.write(thumbnail, format, output)) {
+               log.warn("No writer for " + format + " thumbnails");
+               return;
+            }
+         }
+         setPermissions(tempFile);
+         Files.move(tempFile, thumbnailPath, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+         Files.deleteIfExists(tempFile);
+      }
+   }
+
+}
@@ -17,6 +17,9 @@
 package org.lexikos.translator.service;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.optimaize.langdetect.LanguageDetector;
 import com.optimaize.langdetect.LanguageDetectorBuilder;
 import com.optimaize.langdetect.i18n.LdLocale;
@@ -26,14 +29,28 @@ import com.optimaize.langdetect.profiles.LanguageProfileReader;
 import com.optimaize.langdetect.text.CommonTextObjectFactories;
 import com.optimaize.langdetect.text.TextObject;
 import com.optimaize.langdetect.text.TextObjectFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.lexikos.translator.config.RequestTimings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * This is to automatically detect language of a given phrase.
+ * This is to automatically detect language of a given phrase. If all letters of the phrase are written in a script
+ * used by only one of the supported languages, the language is detected by the script. Otherwise n-gram based
+ * detection is used, its results are memoized.
  *
  * @author Maksim Filkov
  */
@@ -42,11 +59,25 @@ public class LanguageDetectionService {
 
    private static final LanguageDetector languageDetector;
 
+   private static final TextObjectFactory textObjectFactory = CommonTextObjectFactories.forDetectingShortCleanText();
+
    private static final List<String> languages = new ArrayList<String>() {{
       add("en");
       add("ru");
    }};
 
+   private static final Map<String, Character.UnicodeScript> languageScripts =
+      new HashMap<String, Character.UnicodeScript>() {{
+         put("en", Character.UnicodeScript.LATIN);
+         put("ru", Character.UnicodeScript.CYRILLIC);
+      }};
+
+   /**
+    * Scripts which are used by exactly one of the supported languages.
+    */
+   private static final Map<Character.UnicodeScript, String> scriptLanguages =
+      new EnumMap<>(Character.UnicodeScript.class);
+
    static {
       final List<LanguageProfile> languageProfiles;
       try {
@@ -56,10 +87,92 @@ public class LanguageDetectionService {
       }
       languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard())
             .withProfiles(languageProfiles).build();
+
+      final Map<Character.UnicodeScript, Integer> scriptUsages = new EnumMap<>(Character.UnicodeScript.class);
+      for (final String language : languages) {
+         final Character.UnicodeScript script = languageScripts.get(language);
+         if (script != null) {
+            scriptUsages.merge(script, 1, Integer::sum);
+            scriptLanguages.put(script, language);
+         }
+      }
+      scriptUsages.forEach((script, usages) -> {
+         if (usages > 1) {
+            scriptLanguages.remove(script);
+         }
+      });
+   }
+
+   @Value("${search.detection.cache.max_size}")
+   private long cacheMaxSize;
+
+   @Resource
+   private MeterRegistry meterRegistry;
+
+   private Cache<String, String> detectedLanguages;
+
+   private Timer detectionTimer;
+
+   private Counter undetectedLanguages;
+
+   @PostConstruct
+   public void init() {
+      detectedLanguages = CacheBuilder.newBuilder().maximumSize(cacheMaxSize).build();
+      detectionTimer = meterRegistry.timer("language.detection");
+      undetectedLanguages = meterRegistry.counter("language.detection.undetected");
    }
 
    public String detect(final String phrase) {
-      final TextObjectFactory textObjectFactory = CommonTextObjectFactories.forDetectingShortCleanText();
+      final long start = System.nanoTime();
+      final String language = detectUntimed(phrase);
+      detectionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      RequestTimings.record("detect", start);
+      if (language.isEmpty()) {
+         undetectedLanguages.increment();
+      }
+      return language;
+   }
+
+   private String detectUntimed(final String phrase) {
+      final String language = detectByScript(phrase);
+      if (language != null) {
+         return language;
+      }
+      try {
+         return detectedLanguages.get(phrase, () -> detectByNgrams(phrase));
+      } catch (final ExecutionException | UncheckedExecutionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new IllegalStateException(e.getCause());
+      }
+   }
+
+   /**
+    * Detects language by the script the letters of the phrase are written in. Digits, punctuation and other
+    * characters common for all scripts are ignored.
+    *
+    * @return Detected language or null if the script is mixed, unknown or used by several supported languages.
+    */
+   private String detectByScript(final String phrase) {
+      Character.UnicodeScript phraseScript = null;
+      for (int i = 0; i < phrase.length(); ) {
+         final int codePoint = phrase.codePointAt(i);
+         i += Character.charCount(codePoint);
+         final Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+         if (script == Character.UnicodeScript.COMMON || script == Character.UnicodeScript.INHERITED) {
+            continue;
+         }
+         if (phraseScript == null) {
+            phraseScript = script;
+         } else if (phraseScript != script) {
+            return null;
+         }
+      }
+      return phraseScript != null ? scriptLanguages.get(phraseScript) : null;
+   }
+
+   private String detectByNgrams(final String phrase) {
       final TextObject phraseObj = textObjectFactory.forText(phrase);
       final Optional<LdLocale> ldLocale = languageDetector.detect(phraseObj);
       return ldLocale.isPresent() ? ldLocale.get().toString() : "";
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.controller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.service.EntryService;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Maksim Filkov
+ */
+public class EntryControllerTest {
+
+   private static final LanguagePair EN_RU = LanguagePair.of("enru");
+
+   private final EntryService entryService = mock(EntryService.class);
+
+   private final ThreadPoolTaskExecutor solrExecutor = new ThreadPoolTaskExecutor();
+
+   private MockMvc mockMvc;
+
+   @Before
+   public void setUp() {
+      solrExecutor.initialize();
+      final EntryController controller = new EntryController();
+      ReflectionTestUtils.setField(controller, "entryService", entryService);
+      ReflectionTestUtils.setField(controller, "solrExecutor", solrExecutor);
+      ReflectionTestUtils.setField(controller, "cacheMaxAgeSeconds", 60L);
+      final DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+      conversionService.addConverter(String.class, LanguagePair.class, LanguagePair::of);
+      mockMvc = MockMvcBuilders.standaloneSetup(controller).setConversionService(conversionService).build();
+   }
+
+   @After
+   public void tearDown() {
+      solrExecutor.shutdown();
+   }
+
+   @Test
+   public void unchangedEntryIsNotModified() throws Exception {
+      when(entryService.get("1", EN_RU)).thenReturn(entry("дом"));
+      final String eTag = perform(getEntry()).getResponse().getHeader(HttpHeaders.ETAG);
+
+      final MvcResult result = perform(getEntry().header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+      assertEquals(304, result.getResponse().getStatus());
+      assertEquals(eTag, result.getResponse().getHeader(HttpHeaders.ETAG));
+      assertEquals("", result.getResponse().getContentAsString());
+   }
+
+   @Test
+   public void changedEntryIsServedWithNewTag() throws Exception {
+      when(entryService.get("1", EN_RU)).thenReturn(entry("дом"));
+      final String eTag = perform(getEntry()).getResponse().getHeader(HttpHeaders.ETAG);
+      when(entryService.get("1", EN_RU)).thenReturn(entry("здание"));
+
+      final MvcResult result = perform(getEntry().header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+      assertEquals(200, result.getResponse().getStatus());
+      assertNotEquals(eTag, result.getResponse().getHeader(HttpHeaders.ETAG));
+   }
+
+   @Test
+   public void entryIsCachedPrivately() throws Exception {
+      when(entryService.get("1", EN_RU)).thenReturn(entry("дом"));
+
+      final MvcResult started = mockMvc.perform(getEntry()).andExpect(request().asyncStarted()).andReturn();
+
+      mockMvc.perform(asyncDispatch(started))
+         .andExpect(status().isOk())
+         .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+         .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+         .andExpect(content().contentTypeCompatibleWith("application/json"));
+   }
+
+   private MockHttpServletRequestBuilder getEntry() {
+      return get("/search/v1/translation/enru/").param("entryId", "1");
+   }
+
+   private MvcResult perform(final MockHttpServletRequestBuilder builder) throws Exception {
+      final MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+      return mockMvc.perform(asyncDispatch(started)).andReturn();
+   }
+
+   private static Entry entry(final String targetPhrase) {
+      return new Entry().setId("1").setSourcePhrase("house").setTargetPhrase(targetPhrase);
+   }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.constant.TranslationDirection;
+import org.lexikos.translator.domain.Entry;
+import org.lexikos.translator.domain.MatchResult;
+import org.lexikos.translator.exception.InvalidCursorException;
+import org.springframework.data.solr.core.SolrTemplate;
+import org.springframework.data.solr.core.query.Query;
+import org.springframework.data.solr.core.query.result.GroupPage;
+import org.springframework.data.solr.core.query.result.SolrResultPage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Maksim Filkov
+ */
+public class EntryRepositoryImplTest {
+
+   private static final LanguagePair EN_RU = LanguagePair.of("enru");
+
+   private static final int MAX_RESULTS = 2;
+
+   private final SolrTemplate solr = mock(SolrTemplate.class);
+
+   private final EntryRepositoryImpl repository = new EntryRepositoryImpl();
+
+   @Before
+   public void setUp() {
+      final EntryCommitter committer = mock(EntryCommitter.class);
+      when(committer.getPolicy()).thenReturn("NONE");
+      ReflectionTestUtils.setField(repository, "solrTemplates", Collections.singletonMap(EN_RU, solr));
+      ReflectionTestUtils.setField(repository, "solrWriteTemplates", Collections.singletonMap(EN_RU, solr));
+      ReflectionTestUtils.setField(repository, "committer", committer);
+      ReflectionTestUtils.setField(repository, "exactMatchIndex", mock(ExactMatchIndex.class));
+      ReflectionTestUtils.setField(repository, "entryChangeListeners", Collections.emptyList());
+      ReflectionTestUtils.setField(repository, "meterRegistry", new SimpleMeterRegistry());
+      ReflectionTestUtils.setField(repository, "maxResultsForExactMatch", MAX_RESULTS);
+      ReflectionTestUtils.setField(repository, "batchChunkSize", 100);
+   }
+
+   @Test
+   public void batchClassifiesEntriesByPhraseAndDirection() {
+      final Entry houseHome = entry("1", "house", "home");
+      final Entry homeDom = entry("2", "Home", "дом");
+      found(Arrays.asList(houseHome, homeDom), 2);
+
+      final Map<String, MatchResult> results = repository.findExactlyMatched(Arrays.asList("house", "home", "дом"),
+         EN_RU);
+
+      final MatchResult house = results.get("house");
+      assertEquals(TranslationDirection.DIRECT, house.getDirection());
+      assertEquals(Collections.singletonList(houseHome), house.getEntries().getContent());
+      final MatchResult home = results.get("home");
+      assertEquals(TranslationDirection.DIRECT, home.getDirection());
+      assertEquals(Collections.singletonList(homeDom), home.getEntries().getContent());
+      final MatchResult dom = results.get("дом");
+      assertEquals(TranslationDirection.REVERSE, dom.getDirection());
+      assertEquals(Collections.singletonList(homeDom), dom.getEntries().getContent());
+   }
+
+   @Test
+   public void batchGivesEveryPhraseItsOwnCopyOfEntry() {
+      final Entry houseHome = entry("1", "house", "home");
+      found(Collections.singletonList(houseHome), 1);
+
+      final Map<String, MatchResult> results = repository.findExactlyMatched(Arrays.asList("house", "home"), EN_RU);
+
+      final Entry direct = results.get("house").getEntries().getContent().get(0);
+      final Entry reverse = results.get("home").getEntries().getContent().get(0);
+      assertNotSame(direct, reverse);
+      reverse.setSourcePhrase(reverse.getTargetPhrase());
+      assertEquals("house", direct.getSourcePhrase());
+   }
+
+   @Test
+   public void batchReportsTotalBeyondMaxResults() {
+      found(Arrays.asList(entry("1", "house", "дом"), entry("2", "house", "здание"), entry("3", "house", "жилище")),
+         3);
+
+      final MatchResult house = repository.findExactlyMatched(Collections.singletonList("house"), EN_RU).get("house");
+
+      assertEquals(MAX_RESULTS, house.getEntries().getNumberOfElements());
+      assertEquals(3, house.getEntries().getTotalElements());
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void batchFallsBackToSinglePhraseSearchesIfResultIsCut() {
+      found(Collections.singletonList(entry("1", "house", "дом")), 10);
+      final GroupPage<Entry> groups = mock(GroupPage.class);
+      when(solr.queryForGroupPage(any(Query.class), eq(Entry.class))).thenReturn(groups);
+
+      final Map<String, MatchResult> results = repository.findExactlyMatched(Arrays.asList("house", "home"), EN_RU);
+
+      verify(solr, times(2)).queryForGroupPage(any(Query.class), eq(Entry.class));
+      assertEquals(2, results.size());
+   }
+
+   @Test
+   public void cursorIsDecodedForItsSearch() {
+      final String cursor = EntryRepositoryImpl.encodeCursor(TranslationDirection.REVERSE, "AoE/mark", "Big  House",
+         EN_RU);
+
+      final String[] decoded = EntryRepositoryImpl.decodeCursor(cursor, "big house", EN_RU);
+
+      assertEquals("T", decoded[0]);
+      assertEquals("AoE/mark", decoded[2]);
+   }
+
+   @Test(expected = InvalidCursorException.class)
+   public void cursorOfAnotherPhraseIsRejected() {
+      final String cursor = EntryRepositoryImpl.encodeCursor(TranslationDirection.DIRECT, "mark", "house", EN_RU);
+      EntryRepositoryImpl.decodeCursor(cursor, "home", EN_RU);
+   }
+
+   @Test(expected = InvalidCursorException.class)
+   public void cursorOfAnotherLanguagePairIsRejected() {
+      final String cursor = EntryRepositoryImpl.encodeCursor(TranslationDirection.DIRECT, "mark", "house", EN_RU);
+      EntryRepositoryImpl.decodeCursor(cursor, "house", LanguagePair.of("ende"));
+   }
+
+   @Test(expected = InvalidCursorException.class)
+   public void malformedCursorIsRejected() {
+      EntryRepositoryImpl.decodeCursor("not a cursor!", "house", EN_RU);
+   }
+
+   @Test
+   public void sameContentIsSavedUnderSameId() {
+      final Entry first = entry(null, "House", "дом").setAuthor("author").setDictionary("general");
+      final Entry second = entry(null, " house ", "Дом").setAuthor("author").setDictionary("general");
+
+      repository.saveEntry(first, EN_RU);
+      repository.saveEntry(second, EN_RU);
+
+      assertEquals(first.getId(), second.getId());
+      verify(solr).saveBean(first, 0);
+      verify(solr).saveBean(second, 0);
+   }
+
+   @Test
+   public void sameContentOfAnotherAuthorIsSavedUnderAnotherId() {
+      final Entry first = entry(null, "house", "дом").setAuthor("author").setDictionary("general");
+      final Entry second = entry(null, "house", "дом").setAuthor("another").setDictionary("general");
+
+      repository.saveEntry(first, EN_RU);
+      repository.saveEntry(second, EN_RU);
+
+      assertNotEquals(first.getId(), second.getId());
+   }
+
+   private void found(final List<Entry> entries, final long total) {
+      when(solr.queryForPage(any(Query.class), eq(Entry.class))).thenReturn(new SolrResultPage<>(entries, null, total, null));
+   }
+
+   private static Entry entry(final String id, final String sourcePhrase, final String targetPhrase) {
+      return new Entry().setId(id).setSourcePhrase(sourcePhrase).setTargetPhrase(targetPhrase);
+   }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.Entry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Maksim Filkov
+ */
+public class SpellingIndexTest {
+
+   private static final LanguagePair EN_RU = LanguagePair.of("enru");
+
+   private final IndexedEntries indexedEntries = new IndexedEntries();
+
+   private final SpellingIndex spellingIndex = new SpellingIndex();
+
+   @Before
+   public void setUp() {
+      ReflectionTestUtils.setField(indexedEntries, "entryIndexes", Collections.singletonList(spellingIndex));
+      ReflectionTestUtils.setField(spellingIndex, "indexedEntries", indexedEntries);
+      ReflectionTestUtils.setField(spellingIndex, "maxDistance", 2);
+      ReflectionTestUtils.setField(spellingIndex, "prefixLength", 7);
+   }
+
+   @Test
+   public void equalPhrasesHaveNoDistance() {
+      assertEquals(0, SpellingIndex.distance("house", "house", 2));
+   }
+
+   @Test
+   public void transpositionIsSingleEdit() {
+      assertEquals(1, SpellingIndex.distance("huose", "house", 2));
+   }
+
+   @Test
+   public void substitutionsInsertionsAndDeletionsAreCounted() {
+      assertEquals(1, SpellingIndex.distance("hause", "house", 2));
+      assertEquals(1, SpellingIndex.distance("hous", "house", 2));
+      assertEquals(2, SpellingIndex.distance("houses", "hose", 2));
+   }
+
+   @Test
+   public void distanceBeyondMaximumIsCut() {
+      assertEquals(3, SpellingIndex.distance("kitten", "sitting", 5));
+      assertEquals(2, SpellingIndex.distance("kitten", "sitting", 1));
+      assertEquals(2, SpellingIndex.distance("abc", "xyz", 1));
+   }
+
+   @Test
+   public void closestHeadwordsAreSuggestedFirst() {
+      reload(entry("1", "house", "дом"), entry("2", "house", "здание"), entry("3", "horse", "лошадь"),
+         entry("4", "hose", "шланг"), entry("5", "mouse", "мышь"));
+
+      assertEquals(Arrays.asList("house", "hose", "horse", "mouse"), spellingIndex.correct("huose", EN_RU, 10));
+      assertEquals(Collections.singletonList("house"), spellingIndex.correct("huose", EN_RU, 1));
+   }
+
+   @Test
+   public void nothingIsSuggestedBeforeLoading() {
+      assertEquals(Collections.emptyList(), spellingIndex.correct("huose", EN_RU, 10));
+   }
+
+   private void reload(final Entry... entries) {
+      indexedEntries.reloadStarted(EN_RU);
+      for (final Entry entry : entries) {
+         indexedEntries.reloaded(entry, EN_RU);
+      }
+      indexedEntries.reloadFinished(EN_RU);
+   }
+
+   private static Entry entry(final String id, final String sourcePhrase, final String targetPhrase) {
+      return new Entry().setId(id).setSourcePhrase(sourcePhrase).setTargetPhrase(targetPhrase);
+   }
+
+}
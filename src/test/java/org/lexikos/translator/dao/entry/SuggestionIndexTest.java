@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.dao.entry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.lexikos.translator.constant.LanguagePair;
+import org.lexikos.translator.domain.Entry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Maksim Filkov
+ */
+public class SuggestionIndexTest {
+
+   private static final LanguagePair EN_RU = LanguagePair.of("enru");
+
+   private final IndexedEntries indexedEntries = new IndexedEntries();
+
+   private final SuggestionIndex suggestionIndex = new SuggestionIndex();
+
+   @Before
+   public void setUp() {
+      ReflectionTestUtils.setField(indexedEntries, "entryIndexes", Collections.singletonList(suggestionIndex));
+      ReflectionTestUtils.setField(suggestionIndex, "indexedEntries", indexedEntries);
+      ReflectionTestUtils.setField(suggestionIndex, "maxResults", 2);
+      ReflectionTestUtils.setField(suggestionIndex, "cachedPrefixLength", 2);
+      indexedEntries.reloadStarted(EN_RU);
+      indexedEntries.reloaded(entry("1", "house", "дом"), EN_RU);
+      indexedEntries.reloaded(entry("2", "house", "здание"), EN_RU);
+      indexedEntries.reloaded(entry("3", "horse", "лошадь"), EN_RU);
+      indexedEntries.reloaded(entry("4", "hose", "шланг"), EN_RU);
+      indexedEntries.reloaded(entry("5", "hose", "рукав"), EN_RU);
+      indexedEntries.reloaded(entry("6", "hose", "чулок"), EN_RU);
+      indexedEntries.reloadFinished(EN_RU);
+   }
+
+   @Test
+   public void mostPopularHeadwordsAreSuggestedFirst() {
+      assertEquals(Arrays.asList("hose", "house"), suggestionIndex.suggest("ho", EN_RU, 10));
+      assertEquals(Collections.singletonList("hose"), suggestionIndex.suggest("Ho", EN_RU, 1));
+   }
+
+   @Test
+   public void cachedPrefixAgreesWithScan() {
+      assertEquals(Collections.singletonList("horse"), suggestionIndex.suggest("hor", EN_RU, 10));
+      assertEquals(Arrays.asList("hose", "house"), suggestionIndex.suggest("h", EN_RU, 10));
+      assertEquals(Arrays.asList("hose", "house"), suggestionIndex.suggest("ho", EN_RU, 10));
+   }
+
+   @Test
+   public void hitsPromoteHeadword() {
+      suggestionIndex.suggest("ho", EN_RU, 10);
+      for (int i = 0; i < 3; i++) {
+         suggestionIndex.hit("Horse", EN_RU);
+      }
+
+      assertEquals(Arrays.asList("horse", "hose"), suggestionIndex.suggest("ho", EN_RU, 10));
+      assertEquals(Arrays.asList("horse", "hose"), suggestionIndex.suggest("h", EN_RU, 10));
+   }
+
+   @Test
+   public void removedEntriesAreNotSuggested() {
+      suggestionIndex.suggest("ho", EN_RU, 10);
+      indexedEntries.removed("4", EN_RU);
+      indexedEntries.removed("5", EN_RU);
+      indexedEntries.removed("6", EN_RU);
+
+      assertEquals(Arrays.asList("house", "horse"), suggestionIndex.suggest("ho", EN_RU, 10));
+   }
+
+   private static Entry entry(final String id, final String sourcePhrase, final String targetPhrase) {
+      return new Entry().setId(id).setSourcePhrase(sourcePhrase).setTargetPhrase(targetPhrase);
+   }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lexikos.translator.service;
+
+import org.junit.Test;
+import org.lexikos.translator.constant.EntryField;
+import org.lexikos.translator.constant.TranslationDirection;
+import org.lexikos.translator.domain.Entry;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Maksim Filkov
+ */
+public class EntryServiceImplTest {
+
+   private final EntryServiceImpl entryService = new EntryServiceImpl();
+
+   @Test
+   public void reverseMatchesAreTurnedAroundInCopies() {
+      final Entry entry = new Entry().setSourcePhrase("house").setTargetPhrase("дом").setCommentary("building");
+
+      final List<Entry> swapped = entryService.swapPhrases(Collections.singletonList(entry),
+         TranslationDirection.REVERSE);
+
+      assertEquals("дом", swapped.get(0).getSourcePhrase());
+      assertEquals("house", swapped.get(0).getTargetPhrase());
+      assertEquals("building", swapped.get(0).getCommentary());
+      assertEquals("house", entry.getSourcePhrase());
+      assertEquals("дом", entry.getTargetPhrase());
+   }
+
+   @Test
+   public void directMatchesAreReturnedAsIs() {
+      final List<Entry> entries = Collections.singletonList(new Entry().setSourcePhrase("house"));
+
+      assertSame(entries, entryService.swapPhrases(entries, TranslationDirection.DIRECT));
+   }
+
+   @Test
+   public void projectionKeepsOnlyRequestedFields() {
+      final Entry entry = new Entry().setSourcePhrase("house").setTargetPhrase("дом").setCommentary("building");
+
+      final Entry projected = entryService.project(Collections.singletonList(entry),
+         EnumSet.of(EntryField.SOURCE_PHRASE)).get(0);
+
+      assertEquals("house", projected.getSourcePhrase());
+      assertNull(projected.getTargetPhrase());
+      assertEquals("дом", entry.getTargetPhrase());
+   }
+
+}